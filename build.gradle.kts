@@ -18,7 +18,9 @@
  * along with this program.  If not, see <https://www.gnu.org/licenses/>.
  */
 
+import groovy.json.JsonSlurper
 import nl.javadude.gradle.plugins.license.header.HeaderDefinitionBuilder
+import java.io.DataOutputStream
 import java.nio.file.Files
 import java.nio.file.NoSuchFileException
 import java.nio.file.Path
@@ -59,6 +61,7 @@ dependencies {
     implementation("org.apache.logging.log4j:log4j-slf4j2-impl:2.25.1")
     implementation("org.apache.logging.log4j:log4j-api:2.25.1")
     implementation("org.apache.logging.log4j:log4j-core:2.25.1")
+    implementation("com.lmax:disruptor:4.0.0") // Async event logger
 
     // Guava
     implementation("com.google.guava:guava:33.4.8-jre")
@@ -83,8 +86,38 @@ yamlang {
     inputDir = "assets/lang"
 }
 
+// Flattens the json produced by yamlang into "<size> (<key> <value>)*" written with DataOutputStream,
+// so I18N can load a language without going through Gson
+val compileLangCatalogues = tasks.register("compileLangCatalogues") {
+    val langDir = layout.buildDirectory.dir("resources/main/assets/lang")
+    val outputDir = layout.buildDirectory.dir("generated/lang")
+    dependsOn(tasks.processResources)
+    dependsOn(tasks.matching { it.name.startsWith("yamlang") })
+    inputs.files(tasks.processResources)
+    outputs.dir(outputDir)
+    doLast {
+        val out = outputDir.get().asFile
+        out.deleteRecursively()
+        out.mkdirs()
+        langDir.get().asFile.listFiles { f -> f.name.endsWith(".json") }?.forEach { json ->
+            @Suppress("UNCHECKED_CAST")
+            val translations = JsonSlurper().parse(json, "UTF-8") as Map<String, Any?>
+            DataOutputStream(out.resolve(json.name.removeSuffix(".json") + ".lang").outputStream().buffered()).use {
+                it.writeInt(translations.size)
+                translations.forEach { (key, value) ->
+                    it.writeUTF(key)
+                    it.writeUTF(value.toString())
+                }
+            }
+        }
+    }
+}
+
 tasks.shadowJar {
     configurations = project.configurations.runtimeClasspath.map { listOf(it) }.get()
+    from(compileLangCatalogues) {
+        into("assets/lang")
+    }
     exclude("META-INF")
     archiveClassifier = ""
 }
@@ -132,6 +165,10 @@ tasks.jar {
         attributes("Implementation-Version" to version)
     }
 
+    from(compileLangCatalogues) {
+        into("assets/lang")
+    }
+
     duplicatesStrategy = DuplicatesStrategy.EXCLUDE
 }
 
@@ -20,9 +20,9 @@
 
 package com.edp2021c1.randomseatgenerator;
 
-import com.edp2021c1.randomseatgenerator.core.SeatConfig;
-import com.edp2021c1.randomseatgenerator.core.SeatGenerator;
-import com.edp2021c1.randomseatgenerator.core.SeatTable;
+import com.edp2021c1.randomseatgenerator.core.SeatTableCache;
+import com.edp2021c1.randomseatgenerator.ui.FXUtils;
+import com.edp2021c1.randomseatgenerator.ui.Fonts;
 import com.edp2021c1.randomseatgenerator.ui.stage.PrimaryWindowManager;
 import com.edp2021c1.randomseatgenerator.util.*;
 import com.edp2021c1.randomseatgenerator.util.exception.ExceptionHandler;
@@ -33,11 +33,9 @@ import javafx.stage.Stage;
 
 import java.awt.*;
 import java.io.IOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
 
@@ -49,6 +47,8 @@ public final class AppLaunch extends Application {
 
     private boolean withGUI;
 
+    private CompletableFuture<Void> fontsLoading;
+
     public AppLaunch() {
         super();
     }
@@ -56,6 +56,7 @@ public final class AppLaunch extends Application {
     @Override
     public void init() {
         Thread.currentThread().setUncaughtExceptionHandler(ExceptionHandler.INSTANCE);
+        StartupTracer.mark("init");
 
         LOGGER.info("***   RandomSeatGenerator {}  ***", Metadata.VERSION);
         LOGGER.debug("Build date: {}", Metadata.BUILD_TIME);
@@ -66,16 +67,24 @@ public final class AppLaunch extends Application {
         unnamedPara = para.getUnnamed();
         namedPara = para.getNamed();
 
-        withGUI = !unnamedPara.contains("--nogui");
+        withGUI = !unnamedPara.contains("--nogui") && !unnamedPara.contains("--client");
         AppSettings.withGUI = withGUI;
         AppSettings.mac = Metadata.OS_NAME.toLowerCase().startsWith("mac");
-        try {
-            AppSettings.loadConfig();
-        } catch (IOException e) {
-            ExceptionHandler.INSTANCE.handleException(e);
+
+        // 图形界面才需要的资源，与配置的加载并行
+        if (withGUI) {
+            fontsLoading = Fonts.loadAsync();
+            StartupTracer.async("icons", () -> AwtUtils.setAppIcon(Toolkit.getDefaultToolkit().getImage(Resources.getResource(Metadata.ICON_URL))));
         }
-        I18N.init(AppSettings.config.language);
-        AwtUtils.setAppIcon(Toolkit.getDefaultToolkit().getImage(Resources.getResource(Metadata.ICON_URL)));
+
+        StartupTracer.trace("config", () -> {
+            try {
+                AppSettings.loadConfig();
+            } catch (IOException e) {
+                ExceptionHandler.INSTANCE.handleException(e);
+            }
+        });
+        StartupTracer.trace("i18n", () -> I18N.init(AppSettings.config.language));
         AppSettings.initializingDone = true;
     }
 
@@ -85,42 +94,35 @@ public final class AppLaunch extends Application {
 
         try {
             if (withGUI) {
-                PrimaryWindowManager.init(primaryStage);
-                primaryStage.show();
+                StartupTracer.trace("fonts (wait)", fontsLoading::join);
+                StartupTracer.trace("stage", () -> PrimaryWindowManager.init(primaryStage));
+                // 配置文件在程序外被修改时重新载入
+                AppSettings.addConfigListener(c -> DesktopUtils.runOnFXThread(() -> {
+                    FXUtils.globalDarkModeProperty().set(c.darkMode);
+                    PrimaryWindowManager.configChanged();
+                }));
+                AppSettings.startWatching();
+                primaryStage.setOnShown(event -> {
+                    StartupTracer.mark("first frame");
+                    StartupTracer.printTimeline();
+                });
+                StartupTracer.trace("show", primaryStage::show);
             } else {
+                StartupTracer.printTimeline();
 
-                // 种子，默认为随机字符串
-                String seed = namedPara.getOrDefault("seed", Strings.randomString(30));
-                LOGGER.info("Seed: {}", seed);
-
-                // 处理座位表生成配置
-                SeatConfig config = AppSettings.config.seatConfig;
-
-                // 生成座位表
-                SeatTable seatTable = new SeatGenerator(config).generate(seed);
+                SeatTableCache cache = new SeatTableCache(SeatTableCache.DEFAULT_SIZE, unnamedPara.contains("--cache") ? Metadata.DATA_DIR.resolve("cache") : null);
 
-                LOGGER.info("{}{}", System.lineSeparator(), seatTable.toString());
-
-                // 导出
-                Path outputPath = Metadata.DATA_DIR.resolve("%tF.xlsx".formatted(new Date()));
-                if (Files.exists(outputPath)) {
-                    LOGGER.warn("Something's already on the output path, will delete");
-                    IOUtils.delete(outputPath);
+                // 从标准输入逐行读取生成请求
+                if (unnamedPara.contains("--pipe")) {
+                    int jobs = Integer.parseInt(namedPara.getOrDefault("jobs", String.valueOf(Runtime.getRuntime().availableProcessors())));
+                    // 长时间运行, 配置文件修改后对之后的请求生效
+                    AppSettings.startWatching();
+                    new PipeRunner(() -> AppSettings.config.seatConfig, cache).run(System.in, System.out, jobs);
+                    System.exit(0);
                 }
 
-                LOGGER.debug("Exporting seat table to \"{}\"", outputPath);
-                SeatUtils.exportToXlsx(seatTable, outputPath);
-                LOGGER.info("Seat table exported to \"{}\"", outputPath);
-
-                if (unnamedPara.contains("--open-result")) {
-                    LOGGER.debug("Opening output file...");
-                    if (!DesktopUtils.openFileIfSupported(outputPath.toFile())) {
-                        LOGGER.debug("Operation skipped because unsupported");
-                    } else {
-                        LOGGER.debug("Opened output file");
-                    }
-                }
-                System.exit(0);
+                ConsoleRunner runner = new ConsoleRunner(AppSettings.config.seatConfig, cache);
+                System.exit(runner.run(new ConsoleRunner.Command(unnamedPara, namedPara), System.out, LOGGER::info));
             }
         } catch (Exception e) {
             ExceptionHandler.INSTANCE.handleException(e);
@@ -20,37 +20,44 @@
 
 package com.edp2021c1.randomseatgenerator;
 
+import com.edp2021c1.randomseatgenerator.core.SeatGenerator;
 import com.edp2021c1.randomseatgenerator.util.IOUtils;
 import com.edp2021c1.randomseatgenerator.util.Metadata;
+import com.edp2021c1.randomseatgenerator.util.exception.ExceptionHandler;
 
 import java.io.IOException;
-import java.io.UncheckedIOException;
-import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+import static java.nio.file.StandardWatchEventKinds.*;
 
 public final class AppSettings {
 
     private static final Path configPath = Metadata.DATA_DIR.resolve("config.json");
 
-    private static final AppConfig BUILTIN;
-
     public static boolean withGUI = false;
 
     public static boolean mac = false;
 
-    public static AppConfig config = null;
+    /**
+     * Replaced as a whole when the config file is reloaded, so readers always see a complete config.
+     */
+    public static volatile AppConfig config = null;
 
     public static boolean initializingDone = false;
 
-    static {
-        try {
-            BUILTIN = AppConfig.loadFromJson(IOUtils.readResource("assets/conf/builtin.json"));
-        } catch (IOException e) {
-            throw new UncheckedIOException(e);
-        }
-    }
+    /**
+     * Time to wait for further events before reloading, editors often write a file in several steps.
+     */
+    private static final long RELOAD_DEBOUNCE_MILLIS = 100;
+
+    private static final List<Consumer<AppConfig>> configListeners = new CopyOnWriteArrayList<>();
+
+    private static Thread watcher = null;
 
     public static void loadConfig() throws IOException {
         LOGGER.debug("Loading config from {}", configPath);
@@ -61,7 +68,7 @@ public final class AppSettings {
         AppConfig c = AppConfig.loadFromPath(configPath);
         if (c == null) {
             LOGGER.warn("No valid config in {}, will use builtin config", configPath);
-            c = BUILTIN.copy();
+            c = AppConfig.loadFromJson(IOUtils.readResource("assets/conf/builtin.json"));
             c.saveToPath(configPath);
         }
         config = c;
@@ -75,4 +82,81 @@ public final class AppSettings {
         }
     }
 
+    /**
+     * Registers a listener called on the watcher thread after the config file was changed outside the app.
+     */
+    public static void addConfigListener(Consumer<AppConfig> listener) {
+        configListeners.add(listener);
+    }
+
+    /**
+     * Starts watching {@link Metadata#DATA_DIR} for changes to the config file.
+     * Does nothing if already watching.
+     */
+    public static synchronized void startWatching() {
+        if (watcher != null) {
+            return;
+        }
+        watcher = Thread.ofPlatform().name("Config Watcher").daemon().unstarted(AppSettings::watch);
+        watcher.setUncaughtExceptionHandler(ExceptionHandler.INSTANCE);
+        watcher.start();
+    }
+
+    private static void watch() {
+        try (WatchService service = configPath.getFileSystem().newWatchService()) {
+            Metadata.DATA_DIR.register(service, ENTRY_CREATE, ENTRY_MODIFY);
+            LOGGER.debug("Watching {} for config changes", Metadata.DATA_DIR);
+            while (true) {
+                WatchKey key     = service.take();
+                boolean  changed = false;
+                do {
+                    changed |= touchesConfig(key);
+                    if (!key.reset()) {
+                        LOGGER.warn("{} is no longer accessible, stopped watching config changes", Metadata.DATA_DIR);
+                        return;
+                    }
+                } while ((key = service.poll(RELOAD_DEBOUNCE_MILLIS, TimeUnit.MILLISECONDS)) != null);
+                if (changed) {
+                    reloadConfig();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            LOGGER.warn("Unable to watch config changes", e);
+        }
+    }
+
+    private static boolean touchesConfig(WatchKey key) {
+        boolean touches = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || configPath.getFileName().equals(event.context())) {
+                touches = true;
+            }
+        }
+        return touches;
+    }
+
+    private static void reloadConfig() {
+        AppConfig c;
+        try {
+            c = AppConfig.loadFromPath(configPath);
+            // 提前检查, 无效的配置不应替换当前配置
+            if (c == null || c.seatConfig == null) {
+                return;
+            }
+            new SeatGenerator(c.seatConfig);
+        } catch (Exception e) {
+            LOGGER.warn("Ignored invalid config in {}: {}", configPath, e.toString());
+            return;
+        }
+        // 本程序自己保存配置时也会触发
+        if (c.equals(config)) {
+            return;
+        }
+        LOGGER.info("Config reloaded from {}", configPath);
+        config = c;
+        configListeners.forEach(listener -> listener.accept(c));
+    }
+
 }
@@ -0,0 +1,291 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator;
+
+import com.edp2021c1.randomseatgenerator.core.*;
+import com.edp2021c1.randomseatgenerator.util.*;
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Striped;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Consumer;
+
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+
+/**
+ * Runs the console mode for one set of command line arguments.
+ * <p>
+ * Shared by {@code --nogui} runs and the daemon, which keeps one runner and compiled config for all its clients.
+ */
+public final class ConsoleRunner {
+
+    /**
+     * Concurrent runs export to the same file when started on the same day with the same format.
+     */
+    private static final Striped<Lock> outputLocks = Striped.lock(16);
+
+    private static final Set<String> BATCH_FORMATS = Set.of("xlsx", "png", "pdf", "jsonl");
+
+    private final SeatTableCache cache;
+
+    private volatile Compiled compiled;
+
+    public ConsoleRunner(SeatConfig config, SeatTableCache cache) {
+        this.cache = cache;
+        configChanged(config);
+    }
+
+    /**
+     * Compiles the config, runs already started keep the generator they began with.
+     */
+    public void configChanged(SeatConfig config) {
+        compiled = new Compiled(config, new SeatGenerator(config));
+    }
+
+    /**
+     * Runs the console mode.
+     *
+     * @param command  the arguments
+     * @param out      where tables are written when asked to write them to stdout
+     * @param messages receives the messages for the user
+     * @return the exit code
+     */
+    public int run(Command command, OutputStream out, Consumer<String> messages) throws IOException {
+        List<String>        unnamedPara = command.unnamed();
+        Map<String, String> namedPara   = command.named();
+        Compiled            compiled    = this.compiled;
+
+        // 种子，默认按 --seed-scheme 生成
+        String seed = namedPara.containsKey("seed")
+                ? namedPara.get("seed")
+                : SeedScheme.getById(namedPara.get("seed-scheme")).create(namedPara.get("class"));
+        messages.accept("Seed: " + seed);
+
+        // 估算单次生成的成功率
+        if (unnamedPara.contains("--estimate")) {
+            int trials = Integer.parseInt(namedPara.getOrDefault("trials", String.valueOf(SuccessEstimator.DEFAULT_TRIALS)));
+            if (trials < 1) {
+                throw TranslatableException.common("invalid_trials", trials);
+            }
+            messages.accept(System.lineSeparator() + SuccessEstimator.estimate(compiled.config, trials, RandomAlgorithm.hash(seed)).notice().message());
+            return 0;
+        }
+
+        String format = namedPara.getOrDefault("format", "xlsx");
+
+        // 考场分配, 每个考场的座位表导出到同一个工作簿
+        if (namedPara.containsKey("rooms")) {
+            exportRooms(compiled.config, Metadata.DATA_DIR.resolve(namedPara.get("rooms")), seed, format, messages);
+            return 0;
+        }
+
+        // 批量生成, 种子为 <seed>-1 到 <seed>-N
+        if (namedPara.containsKey("batch")) {
+            exportBatch(compiled.generator, seed, Integer.parseInt(namedPara.get("batch")), format, out, messages);
+            return 0;
+        }
+
+        // 生成座位表, 指定 --cache 时复用之前运行的结果; 指定 --rotate 或 --update 时由之前导出的座位表得到
+        SeatGenerator generator = compiled.generator;
+        SeatTable     seatTable;
+        if (namedPara.containsKey("rotate")) {
+            seatTable = generator.rotate(SeatTableJson.importFromJson(Metadata.DATA_DIR.resolve(namedPara.get("rotate"))), Rotation.parse(namedPara.get("rotation")));
+        } else if (namedPara.containsKey("update")) {
+            seatTable = generator.update(SeatTableJson.importFromJson(Metadata.DATA_DIR.resolve(namedPara.get("update"))));
+        } else {
+            seatTable = cache.generate(generator, seed);
+        }
+
+        LOGGER.debug("{}{}", System.lineSeparator(), seatTable);
+        LOGGER.debug("Layout fingerprint: {}", "%016x".formatted(seatTable.fingerprint()));
+        LOGGER.debug("Seat table cache: {}", cache.stats());
+
+        // 与另一个种子的结果比较
+        if (namedPara.containsKey("compare")) {
+            // 可以是种子, 也可以是之前导出的 json 文件
+            String    compare = namedPara.get("compare");
+            SeatTable other   = compare.endsWith(".json") || compare.endsWith(".jsonl")
+                    ? SeatTableJson.importFromJson(Metadata.DATA_DIR.resolve(compare))
+                    : cache.generate(generator, compare);
+            messages.accept("Compared with %s:%s%s".formatted(compare, System.lineSeparator(), SeatTableDiff.between(other, seatTable)));
+        }
+
+        // 导出
+        Path outputPath = Metadata.DATA_DIR.resolve("%tF.%s".formatted(new Date(), format));
+        Lock lock       = outputLocks.get(outputPath);
+        lock.lock();
+        try {
+            if (Files.exists(outputPath)) {
+                LOGGER.warn("Something's already on the output path, will delete");
+                IOUtils.delete(outputPath);
+            }
+
+            LOGGER.debug("Exporting seat table to \"{}\"", outputPath);
+            SeatUtils.export(seatTable, outputPath);
+        } finally {
+            lock.unlock();
+        }
+        messages.accept("Seat table exported to \"%s\"".formatted(outputPath));
+
+        if (unnamedPara.contains("--open-result")) {
+            LOGGER.debug("Opening output file...");
+            if (!DesktopUtils.openFileIfSupported(outputPath.toFile())) {
+                LOGGER.debug("Operation skipped because unsupported");
+            } else {
+                LOGGER.debug("Opened output file");
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Generates {@code count} tables, keeping only one of tables with the same layout, into one workbook, or into
+     * one image or PDF file each.
+     */
+    private static void exportBatch(SeatGenerator generator, String seed, int count, String format, OutputStream out, Consumer<String> messages) throws IOException {
+        if (!BATCH_FORMATS.contains(format)) {
+            throw TranslatableException.common("unsupported_format", "--batch", format);
+        }
+        LongHashSet fingerprints = new LongHashSet(count);
+
+        // JSON lines 直接写到标准输出, 便于管道处理
+        if (format.equals("jsonl")) {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            for (int i = 1; i <= count; i++) {
+                SeatTable table = generator.generate(SeedScheme.derive(seed, i));
+                if (fingerprints.add(table.fingerprint())) {
+                    SeatTableJson.writeLine(writer, table);
+                }
+            }
+            writer.flush();
+            messages.accept("%d seat tables written to stdout".formatted(fingerprints.size()));
+            return;
+        }
+
+        // 等待渲染的座位表以紧凑形式保存, 渲染时再还原
+        List<CompactSeatTable> tables = new ArrayList<>();
+        String                 name   = "%tF-batch".formatted(new Date());
+        boolean                images = format.equals("png") || format.equals("pdf");
+
+        Path path = Metadata.DATA_DIR.resolve(images ? name : name + ".xlsx");
+        Lock lock = outputLocks.get(path);
+        lock.lock();
+        try {
+            try (SeatTableWorkbookWriter writer = images ? null : new SeatTableWorkbookWriter(path)) {
+                for (int i = 1; i <= count; i++) {
+                    SeatTable table = generator.generate(SeedScheme.derive(seed, i));
+                    if (!fingerprints.add(table.fingerprint())) {
+                        LOGGER.debug("Skipped seed {}, same layout as an earlier one", table.getSeed());
+                    } else if (writer != null) {
+                        writer.add(table);
+                    } else {
+                        tables.add(CompactSeatTable.of(table, generator.getRoster()));
+                    }
+                }
+            }
+            if (images) {
+                Files.createDirectories(path);
+                SeatTableRenderer.renderAll(Lists.transform(tables, CompactSeatTable::toSeatTable), t -> path.resolve(t.getSeed().replaceAll("[^\\w.-]", "_") + "." + format));
+            }
+        } finally {
+            lock.unlock();
+        }
+        messages.accept("%d seat tables exported to \"%s\"".formatted(fingerprints.size(), path));
+    }
+
+    /**
+     * Spreads the names of the config across the rooms listed in {@code roomsFile}, one {@code <name> <rows> <columns>}
+     * per line, with the other layout options taken from the config, and exports the tables into one workbook.
+     */
+    private static void exportRooms(SeatConfig config, Path roomsFile, String seed, String format, Consumer<String> messages) throws IOException {
+        if (!format.equals("xlsx")) {
+            throw TranslatableException.common("unsupported_format", "--rooms", format);
+        }
+        List<ExamAllocator.Room> rooms = new ArrayList<>();
+        for (String line : IOUtils.readFile(roomsFile).lines().map(String::trim).filter(l -> !l.isEmpty()).toList()) {
+            String[] split = line.split("\\s+");
+            if (split.length != 3) {
+                throw TranslatableException.seat("invalid_room", line);
+            }
+            SeatConfig layout = config.copy();
+            try {
+                layout.rowCount = Integer.parseInt(split[1]);
+                layout.columnCount = Integer.parseInt(split[2]);
+            } catch (NumberFormatException e) {
+                throw TranslatableException.seat("invalid_room", line);
+            }
+            rooms.add(new ExamAllocator.Room(split[0], layout));
+        }
+
+        ExamAllocator.Allocation allocation = new ExamAllocator(rooms).allocate(
+                Arrays.asList(config.nameList.split(" ")),
+                Objects.requireNonNullElse(config.separatedPairs, ""),
+                seed
+        );
+
+        Path path = Metadata.DATA_DIR.resolve("%tF-rooms.xlsx".formatted(new Date()));
+        Lock lock = outputLocks.get(path);
+        lock.lock();
+        try (SeatTableWorkbookWriter writer = new SeatTableWorkbookWriter(path)) {
+            for (SeatTable table : allocation.tables()) {
+                writer.add(table);
+            }
+        } finally {
+            lock.unlock();
+        }
+        for (int i = 0; i < rooms.size(); i++) {
+            long people = Arrays.stream(allocation.tables().get(i).getData()).filter(s -> !"-".equals(s)).count();
+            messages.accept("%s: %d people".formatted(rooms.get(i).name(), people));
+        }
+        messages.accept("%d rooms exported to \"%s\"".formatted(rooms.size(), path));
+    }
+
+    private record Compiled(SeatConfig config, SeatGenerator generator) {
+    }
+
+    /**
+     * Command line arguments, split the same way as {@link javafx.application.Application.Parameters}.
+     */
+    public record Command(List<String> unnamed, Map<String, String> named) {
+
+        public static Command parse(List<String> args) {
+            List<String>        unnamed = new ArrayList<>();
+            Map<String, String> named   = new HashMap<>();
+            for (String arg : args) {
+                int eq = arg.indexOf('=');
+                if (arg.startsWith("--") && eq > 2) {
+                    named.put(arg.substring(2, eq), arg.substring(eq + 1));
+                } else {
+                    unnamed.add(arg);
+                }
+            }
+            return new Command(List.copyOf(unnamed), Map.copyOf(named));
+        }
+
+    }
+
+}
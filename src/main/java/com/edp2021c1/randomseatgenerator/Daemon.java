@@ -0,0 +1,231 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator;
+
+import com.edp2021c1.randomseatgenerator.core.SeatTableCache;
+import com.edp2021c1.randomseatgenerator.util.Metadata;
+import com.edp2021c1.randomseatgenerator.util.i18n.I18N;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import java.io.*;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalInt;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+
+/**
+ * Keeps a warmed-up JVM with the compiled config, so console runs from scripts don't pay for startup each time.
+ * <p>
+ * Started with {@code --daemon}, runs with {@code --client} are then sent to it over a Unix domain socket in the
+ * data dir, and fall back to running in their own JVM if no daemon is listening.
+ */
+public final class Daemon {
+
+    private static final Path SOCKET_PATH = Metadata.DATA_DIR.resolve("daemon.sock");
+
+    private static final byte FRAME_OUT = 'O';
+
+    private static final byte FRAME_MESSAGE = 'M';
+
+    private static final byte FRAME_EXIT = 'X';
+
+    /**
+     * Serves clients until the process is killed.
+     *
+     * @param args the arguments the daemon is started with, {@code --cache} enables the disk cache
+     */
+    public static void serve(List<String> args) throws IOException {
+        LOGGER.info("***   RandomSeatGenerator {} daemon  ***", Metadata.VERSION);
+
+        AppSettings.loadConfig();
+        I18N.init(AppSettings.config.language);
+        AppSettings.initializingDone = true;
+
+        SeatTableCache cache  = new SeatTableCache(SeatTableCache.DEFAULT_SIZE, args.contains("--cache") ? Metadata.DATA_DIR.resolve("cache") : null);
+        ConsoleRunner  runner = new ConsoleRunner(AppSettings.config.seatConfig, cache);
+        AppSettings.addConfigListener(c -> runner.configChanged(c.seatConfig));
+        AppSettings.startWatching();
+
+        if (Files.exists(SOCKET_PATH)) {
+            if (call(List.of("--ping")).isPresent()) {
+                throw new IOException("A daemon is already listening on " + SOCKET_PATH);
+            }
+            // 上次未正常退出留下的
+            Files.delete(SOCKET_PATH);
+        }
+
+        ExecutorService clients = Executors.newCachedThreadPool(new ThreadFactoryBuilder().setNameFormat("Daemon Client %d").setDaemon(true).build());
+        try (ServerSocketChannel server = ServerSocketChannel.open(StandardProtocolFamily.UNIX)) {
+            server.bind(UnixDomainSocketAddress.of(SOCKET_PATH));
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    Files.deleteIfExists(SOCKET_PATH);
+                } catch (IOException ignored) {
+                }
+            }));
+            LOGGER.info("Listening on {}", SOCKET_PATH);
+
+            while (true) {
+                SocketChannel channel = server.accept();
+                clients.execute(() -> handle(channel, runner));
+            }
+        }
+    }
+
+    private static void handle(SocketChannel channel, ConsoleRunner runner) {
+        try (channel) {
+            DataInputStream  in  = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+
+            List<String> args = new ArrayList<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                args.add(in.readUTF());
+            }
+            LOGGER.debug("Running {}", args);
+
+            int exitCode;
+            if (args.contains("--ping")) {
+                exitCode = 0;
+            } else {
+                try {
+                    exitCode = runner.run(ConsoleRunner.Command.parse(args), new FrameOutputStream(out), message -> {
+                        LOGGER.debug(message);
+                        try {
+                            writeMessage(out, message);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                } catch (Exception e) {
+                    LOGGER.error("Failed to run {}", args, e);
+                    writeMessage(out, e.getLocalizedMessage() == null ? e.toString() : e.getLocalizedMessage());
+                    exitCode = 1;
+                }
+            }
+            synchronized (out) {
+                out.writeByte(FRAME_EXIT);
+                out.writeInt(exitCode);
+                out.flush();
+            }
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.warn("Lost connection to client", e);
+        }
+    }
+
+    /**
+     * Sends the arguments to the daemon and relays its output.
+     *
+     * @return exit code of the run, or empty if no daemon is listening
+     */
+    public static OptionalInt call(List<String> args) throws IOException {
+        if (!Files.exists(SOCKET_PATH)) {
+            return OptionalInt.empty();
+        }
+        SocketChannel channel;
+        try {
+            channel = SocketChannel.open(UnixDomainSocketAddress.of(SOCKET_PATH));
+        } catch (IOException e) {
+            LOGGER.debug("No daemon listening on {}", SOCKET_PATH);
+            return OptionalInt.empty();
+        }
+
+        try (channel) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel)));
+            out.writeInt(args.size());
+            for (String arg : args) {
+                out.writeUTF(arg);
+            }
+            out.flush();
+
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            while (true) {
+                byte kind = in.readByte();
+                if (kind == FRAME_EXIT) {
+                    System.out.flush();
+                    return OptionalInt.of(in.readInt());
+                }
+                byte[] data = in.readNBytes(in.readInt());
+                if (kind == FRAME_OUT) {
+                    System.out.write(data);
+                } else {
+                    System.err.println(new String(data, StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    private static void writeMessage(DataOutputStream out, String message) throws IOException {
+        byte[] data = message.getBytes(StandardCharsets.UTF_8);
+        writeFrame(out, FRAME_MESSAGE, data, 0, data.length);
+    }
+
+    private static void writeFrame(DataOutputStream out, byte kind, byte[] data, int off, int len) throws IOException {
+        synchronized (out) {
+            out.writeByte(kind);
+            out.writeInt(len);
+            out.write(data, off, len);
+        }
+    }
+
+    /**
+     * Sends what the runner writes to stdout to the client.
+     */
+    private static final class FrameOutputStream extends OutputStream {
+
+        private final DataOutputStream out;
+
+        private FrameOutputStream(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (len > 0) {
+                writeFrame(out, FRAME_OUT, b, off, len);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            synchronized (out) {
+                out.flush();
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,256 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator;
+
+import com.edp2021c1.randomseatgenerator.core.SeatConfig;
+import com.edp2021c1.randomseatgenerator.core.SeatGenerator;
+import com.edp2021c1.randomseatgenerator.core.SeatTable;
+import com.edp2021c1.randomseatgenerator.core.SeatTableCache;
+import com.edp2021c1.randomseatgenerator.core.SeedScheme;
+import com.edp2021c1.randomseatgenerator.util.IOUtils;
+import com.edp2021c1.randomseatgenerator.util.Metadata;
+import com.edp2021c1.randomseatgenerator.util.SeatTableJson;
+import com.edp2021c1.randomseatgenerator.util.SeatUtils;
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.GSON;
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+
+/**
+ * Runs {@code --pipe}: reads one generation request per line and writes one result per line, in the order of the
+ * requests, while generating several of them at a time.
+ * <p>
+ * A request is a JSON object like {@code {"id": 1, "seed": "abc", "config": {"rows": 7}, "format": "json"}}, all of
+ * it optional. Without a seed, one is created by {@code seedScheme} and {@code class}, see {@link SeedScheme}. {@code config} overrides the current config, {@code configPath} names a config file instead (either
+ * a seat config or the {@code config.json} of the app). With format {@code json} the table is put in the result,
+ * other formats are exported to {@code output}, or to {@code <seed>.<format>} in the data dir.
+ * <p>
+ * A result holds the {@code id} of its request and either {@code table}, {@code path} or {@code error}.
+ */
+public final class PipeRunner {
+
+    /**
+     * Requests read ahead for each worker, so a slow request doesn't leave the others idle.
+     */
+    private static final int IN_FLIGHT_PER_JOB = 4;
+
+    private static final Future<String> END = CompletableFuture.completedFuture(null);
+
+    /**
+     * Read again for every request, so changes to the config file apply to the following requests.
+     */
+    private final Supplier<SeatConfig> defaultConfig;
+
+    private final SeatTableCache cache;
+
+    private final Cache<Long, SeatGenerator> generators = CacheBuilder.newBuilder().maximumSize(64).build();
+
+    private final Cache<Path, ConfigFile> configFiles = CacheBuilder.newBuilder().maximumSize(64).build();
+
+    public PipeRunner(Supplier<SeatConfig> defaultConfig, SeatTableCache cache) {
+        this.defaultConfig = defaultConfig;
+        this.cache = cache;
+    }
+
+    /**
+     * Handles the requests until the end of {@code in}.
+     *
+     * @param jobs number of requests handled at the same time
+     */
+    public void run(InputStream in, OutputStream out, int jobs) throws IOException, InterruptedException {
+        if (jobs < 1) {
+            throw TranslatableException.common("invalid_jobs", jobs);
+        }
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer         writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        BlockingQueue<Future<String>> results = new ArrayBlockingQueue<>(jobs * IN_FLIGHT_PER_JOB);
+        ExecutorService               workers = Executors.newFixedThreadPool(jobs, new ThreadFactoryBuilder().setNameFormat("Pipe Worker %d").setDaemon(true).build());
+        Future<?>                     output  = Executors.newSingleThreadExecutor(new ThreadFactoryBuilder().setNameFormat("Pipe Output").setDaemon(true).build()).submit(() -> {
+            // 按请求顺序写出, 暂时没有更多结果时刷新, 以便交互使用
+            for (Future<String> result = results.take(); result != END; result = results.take()) {
+                writer.write(result.get());
+                writer.write('\n');
+                if (results.isEmpty()) {
+                    writer.flush();
+                }
+            }
+            writer.flush();
+            return null;
+        });
+
+        try {
+            int    lineNumber = 0;
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                String request = line;
+                int    number  = lineNumber;
+                enqueue(results, workers.submit(() -> handle(request, number)), output);
+            }
+            enqueue(results, END, output);
+            output.get();
+        } catch (ExecutionException e) {
+            throw new IOException("Unable to write results", e.getCause());
+        } finally {
+            workers.shutdownNow();
+            output.cancel(true);
+        }
+    }
+
+    /**
+     * Queues a result for the output thread, giving up if it has stopped, as nothing would take from the queue then.
+     *
+     * @throws ExecutionException if the output thread failed, e.g. on a closed stdout
+     */
+    private static void enqueue(BlockingQueue<Future<String>> results, Future<String> result, Future<?> output) throws InterruptedException, ExecutionException {
+        do {
+            // 输出线程只会在写完 END 后正常结束, 在此之前结束说明出错了
+            if (output.isDone()) {
+                output.get();
+                throw new ExecutionException(new IllegalStateException("Output stopped"));
+            }
+        } while (!results.offer(result, 100, TimeUnit.MILLISECONDS));
+    }
+
+    /**
+     * Handles one request, never throws so that every request gets its result.
+     */
+    private String handle(String line, int lineNumber) {
+        StringWriter result = new StringWriter();
+        JsonWriter   writer = new JsonWriter(result);
+        try {
+            writer.beginObject();
+            JsonElement id = null;
+            try {
+                JsonObject request = JsonParser.parseString(line).getAsJsonObject();
+                id = request.get("id");
+                if (id != null) {
+                    writer.name("id");
+                    GSON.toJson(id, writer);
+                }
+
+                String seed   = request.has("seed") ? request.get("seed").getAsString() : defaultSeed(request);
+                String format = request.has("format") ? request.get("format").getAsString() : "json";
+
+                SeatConfig    config    = config(request);
+                SeatGenerator generator = generators.get(config.fingerprint(), () -> new SeatGenerator(config));
+                SeatTable     table     = cache.generate(generator, seed);
+
+                if (format.equals("json")) {
+                    writer.name("table");
+                    SeatTableJson.write(writer, table);
+                } else {
+                    Path path = request.has("output")
+                            ? Metadata.DATA_DIR.resolve(request.get("output").getAsString())
+                            : Metadata.DATA_DIR.resolve(seed.replaceAll("[^\\w.-]", "_") + "." + format);
+                    SeatUtils.export(table, path);
+                    writer.name("path").value(path.toString());
+                }
+            } catch (Exception e) {
+                Throwable cause = e instanceof ExecutionException || e instanceof UncheckedExecutionException ? e.getCause() : e;
+                LOGGER.debug("Request on line {} failed", lineNumber, cause);
+                // 写到一半失败时重新开始, 只保留 id
+                result.getBuffer().setLength(0);
+                writer = new JsonWriter(result);
+                writer.beginObject();
+                if (id != null) {
+                    writer.name("id");
+                    GSON.toJson(id, writer);
+                }
+                writer.name("line").value(lineNumber);
+                writer.name("error").value(cause.getLocalizedMessage() == null ? cause.toString() : cause.getLocalizedMessage());
+            }
+            writer.endObject();
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return result.toString();
+    }
+
+    private static String defaultSeed(JsonObject request) {
+        String scheme  = request.has("seedScheme") ? request.get("seedScheme").getAsString() : null;
+        String classId = request.has("class") ? request.get("class").getAsString() : null;
+        return SeedScheme.getById(scheme).create(classId);
+    }
+
+    /**
+     * The config of the request, with what it leaves out taken from the current config.
+     */
+    private SeatConfig config(JsonObject request) throws IOException {
+        JsonObject config = GSON.toJsonTree(defaultConfig.get()).getAsJsonObject();
+        if (request.has("configPath")) {
+            Path path = Metadata.DATA_DIR.resolve(request.get("configPath").getAsString()).normalize();
+            override(config, configFile(path));
+        }
+        if (request.has("config")) {
+            override(config, request.getAsJsonObject("config"));
+        }
+        return GSON.fromJson(config, SeatConfig.class);
+    }
+
+    /**
+     * The seat config in a config file, read again once the file has been modified.
+     */
+    private JsonObject configFile(Path path) throws IOException {
+        FileTime   modified = Files.getLastModifiedTime(path);
+        ConfigFile cached   = configFiles.getIfPresent(path);
+        if (cached != null && cached.modified.equals(modified)) {
+            return cached.seatConfig;
+        }
+        JsonObject file       = JsonParser.parseString(IOUtils.readFile(path)).getAsJsonObject();
+        JsonObject seatConfig = file.has("seatConfig") ? file.getAsJsonObject("seatConfig") : file;
+        configFiles.put(path, new ConfigFile(modified, seatConfig));
+        return seatConfig;
+    }
+
+    private static void override(JsonObject base, JsonObject overrides) {
+        // 旧版字段名与新版并存时, 后出现的生效
+        overrides.entrySet().forEach(e -> {
+            base.remove(e.getKey());
+            base.add(e.getKey(), e.getValue());
+        });
+    }
+
+    private record ConfigFile(FileTime modified, JsonObject seatConfig) {
+    }
+
+}
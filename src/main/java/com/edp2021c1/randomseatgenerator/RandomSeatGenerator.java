@@ -20,14 +20,20 @@
 
 package com.edp2021c1.randomseatgenerator;
 
+import com.edp2021c1.randomseatgenerator.util.StartupTracer;
 import com.edp2021c1.randomseatgenerator.util.exception.ExceptionHandler;
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
 import com.google.gson.Strictness;
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.config.Configurator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.swing.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.OptionalInt;
 
 public final class RandomSeatGenerator {
 
@@ -37,8 +43,30 @@ public final class RandomSeatGenerator {
 
     public static void main(String[] args) {
         Thread.currentThread().setName("main");
+        if (Arrays.asList(args).contains("--verbose")) {
+            Configurator.setRootLevel(Level.DEBUG);
+        }
+        if (Arrays.asList(args).contains("--profile-startup")) {
+            StartupTracer.enable();
+            StartupTracer.mark("main");
+        }
 
         try {
+            // 守护进程及其客户端都不需要 JavaFX
+            List<String> argList = Arrays.asList(args);
+            if (argList.contains("--daemon")) {
+                Daemon.serve(argList);
+                return;
+            }
+            // 标准输入不经过守护进程, --pipe 总是在本进程内运行
+            if (argList.contains("--client") && !argList.contains("--pipe")) {
+                OptionalInt exitCode = Daemon.call(argList);
+                if (exitCode.isPresent()) {
+                    System.exit(exitCode.getAsInt());
+                }
+                LOGGER.warn("No daemon running, running in this process instead");
+            }
+
             javafx.application.Application.launch(AppLaunch.class, args);
         } catch (Exception e) {
             ExceptionHandler.INSTANCE.handleException(e);
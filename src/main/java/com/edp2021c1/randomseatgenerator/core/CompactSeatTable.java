@@ -0,0 +1,206 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import lombok.Getter;
+import org.jetbrains.annotations.Contract;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * A read-only {@link SeatTable} kept as ids into a shared {@link Roster}, for holding many tables at once.
+ * <p>
+ * Each seat takes as few bytes as the roster size allows, one for up to 256 names and two for up to 65536, while empty
+ * seats and leaders are kept as bitsets. Use {@link #toSeatTable()} where the names are needed as a {@link SeatTable}.
+ */
+public final class CompactSeatTable {
+
+    @Getter
+    private final Roster roster;
+
+    @Getter
+    private final int rowCount;
+
+    @Getter
+    private final int columnCount;
+
+    /**
+     * Bytes per seat in {@link #ids}.
+     */
+    private final int width;
+
+    /**
+     * Little-endian ids of the people in the seats, {@link #width} bytes each.
+     */
+    private final byte[] ids;
+
+    private final long[] empty;
+
+    /**
+     * Leader seats, {@code null} for tables without leaders.
+     */
+    private final long @Nullable [] leaders;
+
+    private final int luckyPerson;
+
+    @Getter
+    @Nullable
+    private final String seed;
+
+    @Getter
+    @Nullable
+    private final String algorithm;
+
+    @Getter
+    @Nullable
+    private final String configFingerprint;
+
+    private CompactSeatTable(SeatTable table, Roster roster) {
+        this.roster = roster;
+        this.rowCount = table.getRowCount();
+        this.columnCount = table.getColumnCount();
+        this.seed = table.getSeed();
+        this.algorithm = table.getAlgorithm();
+        this.configFingerprint = table.getConfigFingerprint();
+
+        String[] data = table.getData();
+        this.width = Math.max(1, (Integer.SIZE - Integer.numberOfLeadingZeros(roster.size() - 1) + 7) / 8);
+        // 座位很多时字节数可能超出 int 范围
+        this.ids = new byte[Math.multiplyExact(data.length, width)];
+        this.empty = new long[(data.length + 63) >>> 6];
+        for (int seat = 0; seat < data.length; seat++) {
+            if (data[seat] == null || data[seat].equals("-")) {
+                empty[seat >>> 6] |= 1L << seat;
+                continue;
+            }
+            int id = idOf(data[seat]);
+            for (int k = 0; k < width; k++) {
+                ids[seat * width + k] = (byte) (id >>> 8 * k);
+            }
+        }
+
+        if (table.hasLeaders()) {
+            this.leaders = new long[empty.length];
+            int[] rows = table.getLeaders();
+            for (int column = 0; column < rows.length; column++) {
+                if (rows[column] >= 0 && rows[column] < rowCount) {
+                    int seat = rows[column] * columnCount + column;
+                    leaders[seat >>> 6] |= 1L << seat;
+                }
+            }
+        } else {
+            this.leaders = null;
+        }
+        this.luckyPerson = table.hasLuckyPerson() ? idOf(table.getLuckyPerson()) : Roster.ABSENT;
+    }
+
+    /**
+     * @throws IllegalArgumentException if someone in the table is not in the roster
+     */
+    @Contract(pure = true)
+    public static CompactSeatTable of(SeatTable table, Roster roster) throws IllegalArgumentException {
+        return new CompactSeatTable(table, roster);
+    }
+
+    private static boolean bit(long[] bits, int index) {
+        return (bits[index >>> 6] & 1L << index) != 0;
+    }
+
+    private int idOf(String name) {
+        int id = roster.idOf(name);
+        if (id == Roster.ABSENT) {
+            throw new IllegalArgumentException("Not in the roster: " + name);
+        }
+        return id;
+    }
+
+    @Contract(pure = true)
+    public int size() {
+        return rowCount * columnCount;
+    }
+
+    /**
+     * @return the id of the person in the seat, or {@link Roster#ABSENT} for an empty seat
+     */
+    @Contract(pure = true)
+    public int idAt(int seat) {
+        if (bit(empty, seat)) {
+            return Roster.ABSENT;
+        }
+        int id = 0;
+        for (int k = 0; k < width; k++) {
+            id |= (ids[seat * width + k] & 0xFF) << 8 * k;
+        }
+        return id;
+    }
+
+    /**
+     * @return the name in the seat, {@code "-"} for an empty seat as in a filled {@link SeatTable}
+     */
+    @Contract(pure = true)
+    public String get(int rowIndex, int columnIndex) {
+        int id = idAt(rowIndex * columnCount + columnIndex);
+        return id == Roster.ABSENT ? "-" : roster.name(id);
+    }
+
+    @Contract(pure = true)
+    public boolean hasLeaders() {
+        return leaders != null;
+    }
+
+    @Contract(pure = true)
+    public boolean isLeader(int rowIndex, int columnIndex) {
+        return leaders != null && bit(leaders, rowIndex * columnCount + columnIndex);
+    }
+
+    @Nullable
+    @Contract(pure = true)
+    public String getLuckyPerson() {
+        return luckyPerson == Roster.ABSENT ? null : roster.name(luckyPerson);
+    }
+
+    /**
+     * A new, modifiable {@link SeatTable} with the same seats, leaders and lucky person.
+     */
+    @Contract(pure = true)
+    public SeatTable toSeatTable() {
+        SeatTable table = new SeatTable(rowCount, columnCount, hasLeaders(), seed, algorithm);
+        table.setConfigFingerprint(configFingerprint);
+        table.setLuckyPerson(getLuckyPerson());
+        String[] data = table.getData();
+        for (int seat = 0; seat < data.length; seat++) {
+            int id = idAt(seat);
+            data[seat] = id == Roster.ABSENT ? "-" : roster.name(id);
+        }
+        if (leaders != null) {
+            int[] rows = table.getLeaders();
+            Arrays.fill(rows, -1);
+            for (int seat = 0; seat < data.length; seat++) {
+                if (bit(leaders, seat)) {
+                    rows[seat % columnCount] = seat / columnCount;
+                }
+            }
+        }
+        return table;
+    }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import com.edp2021c1.randomseatgenerator.util.i18n.I18N;
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.Contract;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Spreads one roster across several rooms and generates a seat table for each of them.
+ * <p>
+ * Every room receives a cross-section of the roster in its original order, and people in a separated pair
+ * are put into different rooms whenever there is room for it. Pairs that cannot be split across rooms are
+ * kept apart inside their room instead.
+ */
+public class ExamAllocator {
+
+    private final List<Room> rooms;
+
+    private final int[] capacities;
+
+    public ExamAllocator(List<Room> rooms) {
+        if (rooms.isEmpty()) {
+            throw TranslatableException.seat("must_be_positive", 0);
+        }
+        this.rooms = List.copyOf(rooms);
+        this.capacities = this.rooms.stream().mapToInt(r -> capacityOf(r.layout)).toArray();
+    }
+
+    private static int capacityOf(SeatConfig layout) {
+        long disabled = Arrays.stream(layout.disabledLastRowPositions.split(" "))
+                .filter(s -> !s.isBlank())
+                .mapToInt(s -> Integer.parseInt(s) - 1)
+                .filter(i -> i < layout.columnCount)
+                .distinct()
+                .count();
+        return (int) (layout.rowCount * layout.columnCount - disabled);
+    }
+
+    /**
+     * Assigns each person a room, visiting the roster in order and picking the least filled room that holds
+     * none of the person's separated partners.
+     *
+     * @return room index of each person
+     */
+    private int[] partition(int peopleCount, List<int[]> separatedPairs) {
+        List<List<Integer>> partners = new ArrayList<>(Collections.nCopies(peopleCount, null));
+        for (int[] pair : separatedPairs) {
+            for (int k = 0; k < 2; k++) {
+                if (partners.get(pair[k]) == null) {
+                    partners.set(pair[k], new ArrayList<>(2));
+                }
+                partners.get(pair[k]).add(pair[1 - k]);
+            }
+        }
+
+        int[] roomOf = new int[peopleCount];
+        Arrays.fill(roomOf, -1);
+        int[] filled = new int[rooms.size()];
+        // 按填充率排序, 填充率相同时按房间顺序
+        PriorityQueue<Integer> queue = new PriorityQueue<>(rooms.size(), (x, y) -> {
+            int c = Long.compare((long) filled[x] * capacities[y], (long) filled[y] * capacities[x]);
+            return c != 0 ? c : Integer.compare(x, y);
+        });
+        for (int r = 0; r < rooms.size(); r++) {
+            if (capacities[r] > 0) {
+                queue.add(r);
+            }
+        }
+
+        List<Integer> skipped = new ArrayList<>();
+        for (int p = 0; p < peopleCount; p++) {
+            List<Integer> ps = partners.get(p);
+
+            int room = -1;
+            while (!queue.isEmpty()) {
+                int r = queue.poll();
+                if (ps == null || ps.stream().noneMatch(q -> roomOf[q] == r)) {
+                    room = r;
+                    break;
+                }
+                skipped.add(r);
+            }
+            if (room == -1) {
+                // 所有剩余房间都有冲突, 放入最空的房间, 在房间内拆分
+                room = skipped.removeFirst();
+            }
+            queue.addAll(skipped);
+            skipped.clear();
+
+            roomOf[p] = room;
+            if (++filled[room] < capacities[room]) {
+                queue.add(room);
+            }
+        }
+        return roomOf;
+    }
+
+    /**
+     * Allocates the roster and generates the seat table of every room in parallel.
+     * Each room uses a seed derived from {@code seed} and its name, so the result is reproducible.
+     *
+     * @param roster         names in the order they should be seated, usually by height
+     * @param separatedPairs lines of two names that should not sit near each other
+     * @param seed           base seed
+     */
+    @Contract(pure = true)
+    public Allocation allocate(List<String> roster, String separatedPairs, String seed) {
+        int capacity = Arrays.stream(capacities).sum();
+        if (capacity < roster.size()) {
+            throw TranslatableException.seat("not_enough", I18N.constant("seats"), capacity, roster.size());
+        }
+
+        Map<String, Integer> ids = Maps.newHashMapWithExpectedSize(roster.size());
+        for (int i = 0; i < roster.size(); i++) {
+            ids.putIfAbsent(roster.get(i), i);
+        }
+        List<int[]> pairs = new ArrayList<>();
+        separatedPairs.lines().forEach(l -> {
+            String[] split = l.split(" ", 2);
+            if (split.length < 2) {
+                return;
+            }
+            Integer a = ids.get(split[0]), b = ids.get(split[1]);
+            if (a != null && b != null && !a.equals(b)) {
+                pairs.add(new int[]{a, b});
+            }
+        });
+        int[] roomOf = partition(roster.size(), pairs);
+
+        List<List<String>> members = IntStream.range(0, rooms.size()).mapToObj(i -> new ArrayList<String>()).collect(Collectors.toList());
+        for (int p = 0; p < roster.size(); p++) {
+            members.get(roomOf[p]).add(roster.get(p));
+        }
+        // 未能分到不同房间的人, 交给房间内的生成器拆分
+        String[] roomPairs = new String[rooms.size()];
+        Arrays.fill(roomPairs, "");
+        for (int[] pair : pairs) {
+            int r = roomOf[pair[0]];
+            if (r == roomOf[pair[1]]) {
+                roomPairs[r] += roster.get(pair[0]) + " " + roster.get(pair[1]) + "\n";
+            }
+        }
+
+        List<SeatTable> tables = IntStream.range(0, rooms.size()).parallel().mapToObj(r -> {
+            Room        room   = rooms.get(r);
+            Set<String> inRoom = new HashSet<>(members.get(r));
+            SeatConfig  config = room.layout.copy();
+            config.nameList = String.join(" ", members.get(r));
+            config.separatedPairs = roomPairs[r];
+            // 每个人都要有座位, 不抽幸运儿; 考场不设组长, 各考场分到的组长数不一定够;
+            // 固定座位属于原来的教室, 同桌只保留本考场的
+            config.findLucky = false;
+            config.findLeaders = false;
+            config.pinnedSeats = "";
+            config.togetherPairs = ofMembers(config.togetherPairs, inRoom);
+            if (members.get(r).isEmpty()) {
+                return new SeatGenerator(config).generateEmpty();
+            }
+            return new SeatGenerator(config).generate("%s/%s".formatted(seed, room.name));
+        }).toList();
+
+        return new Allocation(rooms, tables, index(tables));
+    }
+
+    /**
+     * Lines of {@code lines} whose names are all people in the room.
+     */
+    private static String ofMembers(String lines, Set<String> inRoom) {
+        if (lines == null) {
+            return "";
+        }
+        return lines.lines()
+                .filter(l -> Arrays.stream(l.trim().split("\\s+")).allMatch(inRoom::contains))
+                .collect(Collectors.joining("\n"));
+    }
+
+    private Map<String, Placement> index(List<SeatTable> tables) {
+        Map<String, Placement> index = new TreeMap<>();
+        for (int r = 0; r < tables.size(); r++) {
+            SeatTable table = tables.get(r);
+            String[]  data  = table.getData();
+            for (int i = 0; i < data.length; i++) {
+                if (!"-".equals(data[i])) {
+                    index.put(data[i], new Placement(rooms.get(r).name, i / table.getColumnCount(), i % table.getColumnCount()));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(index);
+    }
+
+    /**
+     * A room to allocate people into. Only the layout options of {@code layout} are used,
+     * the names and separated pairs are filled in by the allocator, and neither leaders nor a lucky person are drawn.
+     * Desk mates listed in {@code layout} are kept if both of them end up in this room, pinned seats are not.
+     */
+    public record Room(String name, SeatConfig layout) {
+    }
+
+    /**
+     * Where a person sits. Row and column start from 0.
+     */
+    public record Placement(String room, int row, int column) {
+    }
+
+    public record Allocation(List<Room> rooms, List<SeatTable> tables, Map<String, Placement> index) {
+
+        @Contract(pure = true)
+        public SeatTable tableOf(String room) {
+            for (int i = 0; i < rooms.size(); i++) {
+                if (rooms.get(i).name.equals(room)) {
+                    return tables.get(i);
+                }
+            }
+            return null;
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * How people are placed in each attempt of generation.
+ */
+public enum PlacementStrategy {
+
+    /**
+     * Shuffles every range and checks the result, the only strategy before there was a choice.
+     */
+    SHUFFLE("shuffle"),
+    /**
+     * Gives every column a leader before shuffling the others, so that no attempt fails for a column without one.
+     * Same as {@link #SHUFFLE} when leaders are not searched for.
+     */
+    LEADERS_FIRST("leaders_first");
+
+    public static final PlacementStrategy DEFAULT = SHUFFLE;
+
+    public static PlacementStrategy getById(@Nullable String id) {
+        if (id == null || id.isBlank()) {
+            return DEFAULT;
+        }
+        for (PlacementStrategy strategy : values()) {
+            if (strategy.id.equals(id)) {
+                return strategy;
+            }
+        }
+        throw TranslatableException.seat("unknown_placement", id);
+    }
+
+    public final String id;
+
+    PlacementStrategy(String id) {
+        this.id = id;
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+public enum RandomAlgorithm {
+
+    /**
+     * {@link Random} seeded from {@link String#hashCode()}, kept to reproduce tables generated before algorithm ids
+     * were recorded.
+     */
+    LEGACY("legacy") {
+        @Override
+        public RandomGenerator create(@Nullable String seed) {
+            return new Random(seed == null ? 0L : seed.hashCode());
+        }
+    },
+    L64X128_MIX("l64x128mix-v1") {
+        @Override
+        public RandomGenerator create(@Nullable String seed) {
+            return L64X128_MIX_FACTORY.create(hash(seed));
+        }
+    },
+    SPLITTABLE("splittable-v1") {
+        @Override
+        public RandomGenerator create(@Nullable String seed) {
+            return new SplittableRandom(hash(seed));
+        }
+    };
+
+    public static final RandomAlgorithm DEFAULT = L64X128_MIX;
+
+    private static final RandomGeneratorFactory<RandomGenerator> L64X128_MIX_FACTORY = RandomGeneratorFactory.of("L64X128MixRandom");
+
+    /**
+     * Resolves an algorithm from its id, configs without one are treated as {@link #LEGACY}.
+     */
+    public static RandomAlgorithm getById(@Nullable String id) {
+        if (id == null || id.isBlank()) {
+            return LEGACY;
+        }
+        for (RandomAlgorithm algorithm : values()) {
+            if (algorithm.id.equals(id)) {
+                return algorithm;
+            }
+        }
+        throw TranslatableException.seat("unknown_algorithm", id);
+    }
+
+    @Contract(pure = true)
+    public static long hash(@Nullable String seed) {
+        return seed == null ? 0L : Hashing.farmHashFingerprint64().hashString(seed, StandardCharsets.UTF_8).asLong();
+    }
+
+    public final String id;
+
+    RandomAlgorithm(String id) {
+        this.id = id;
+    }
+
+    public abstract RandomGenerator create(@Nullable String seed);
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+}
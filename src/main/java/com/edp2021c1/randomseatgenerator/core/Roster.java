@@ -0,0 +1,77 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import org.jetbrains.annotations.Contract;
+import org.jspecify.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+
+/**
+ * An immutable dictionary of the names in a config, shared by the {@link CompactSeatTable}s generated from it.
+ * <p>
+ * Each distinct name gets one id, people sharing a name share the id.
+ */
+public final class Roster {
+
+    public static final int ABSENT = -1;
+
+    private final ImmutableList<String> names;
+
+    private final ImmutableMap<String, Integer> ids;
+
+    private Roster(ImmutableList<String> names) {
+        this.names = names;
+        ImmutableMap.Builder<String, Integer> builder = ImmutableMap.builderWithExpectedSize(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            builder.put(names.get(i), i);
+        }
+        this.ids = builder.build();
+    }
+
+    @Contract(pure = true)
+    public static Roster of(Collection<String> names) {
+        return new Roster(ImmutableList.copyOf(new LinkedHashSet<>(names)));
+    }
+
+    @Contract(pure = true)
+    public String name(int id) {
+        return names.get(id);
+    }
+
+    /**
+     * @return the id of the name, or {@link #ABSENT} if it is not in the roster
+     */
+    @Contract(pure = true)
+    public int idOf(@Nullable String name) {
+        Integer id = name == null ? null : ids.get(name);
+        return id == null ? ABSENT : id;
+    }
+
+    @Contract(pure = true)
+    public int size() {
+        return names.size();
+    }
+
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import org.jetbrains.annotations.Contract;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Moves everyone in a seat table the same way, see {@link SeatGenerator#rotate(SeatTable, Rotation)}.
+ * <p>
+ * Written as comma separated steps, {@code column}, {@code row} with an optional count such as {@code column:-2},
+ * and {@code mirror}.
+ *
+ * @param columns columns to shift to the right, negative to the left
+ * @param rows    rows to shift to the back, negative to the front
+ * @param mirror  whether to mirror the table left to right before shifting
+ */
+public record Rotation(int columns, int rows, boolean mirror) {
+
+    public static final Rotation DEFAULT = new Rotation(1, 0, false);
+
+    public static final Rotation NONE = new Rotation(0, 0, false);
+
+    @Contract(pure = true)
+    public static Rotation parse(String spec) {
+        if (spec == null || spec.isBlank()) {
+            return DEFAULT;
+        }
+        int     columns = 0, rows = 0;
+        boolean mirror  = false;
+        for (String step : spec.split(",")) {
+            String[] split = step.trim().split(":", 2);
+            try {
+                int count = split.length > 1 ? Integer.parseInt(split[1].trim()) : 1;
+                switch (split[0].trim()) {
+                    case "column" -> columns += count;
+                    case "row" -> rows += count;
+                    case "mirror" -> mirror ^= count % 2 != 0;
+                    default -> throw TranslatableException.seat("invalid_rotation", spec);
+                }
+            } catch (NumberFormatException e) {
+                throw TranslatableException.seat("invalid_rotation", spec);
+            }
+        }
+        return new Rotation(columns, rows, mirror);
+    }
+
+    /**
+     * The seat the person in {@code seat} moves to.
+     */
+    @Contract(pure = true)
+    public int seatAfter(int seat, int rowCount, int columnCount) {
+        int row = seat / columnCount, column = seat % columnCount;
+        if (mirror) {
+            column = columnCount - 1 - column;
+        }
+        return Math.floorMod(row + rows, rowCount) * columnCount + Math.floorMod(column + columns, columnCount);
+    }
+
+    @Override
+    public String toString() {
+        List<String> steps = new ArrayList<>();
+        if (mirror) {
+            steps.add("mirror");
+        }
+        if (columns != 0) {
+            steps.add("column:" + columns);
+        }
+        if (rows != 0) {
+            steps.add("row:" + rows);
+        }
+        return steps.isEmpty() ? "none" : String.join(",", steps);
+    }
+
+}
@@ -20,6 +20,8 @@
 
 package com.edp2021c1.randomseatgenerator.core;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.google.gson.annotations.SerializedName;
 import lombok.EqualsAndHashCode;
 
@@ -47,12 +49,83 @@ public class SeatConfig {
     @SerializedName(value = "separated", alternate = "separate_list")
     public String separatedPairs;
 
+    /**
+     * People sitting in fixed seats, one per line as {@code <name> <row> <column>}, counting from 1.
+     */
+    @SerializedName(value = "pinned")
+    public String pinnedSeats;
+
+    /**
+     * Pairs of people sitting side by side in one row, one pair per line.
+     */
+    @SerializedName(value = "together")
+    public String togetherPairs;
+
+    /**
+     * Separated pairs must sit farther apart than this, 0 is treated as the default 1.
+     */
+    @SerializedName(value = "separationDistance")
+    public int separationDistance;
+
+    @SerializedName(value = "separationMetric")
+    public String separationMetric;
+
     @SerializedName(value = "findLucky", alternate = "lucky_option")
     public boolean findLucky;
 
     @SerializedName(value = "findLeaders")
     public boolean findLeaders;
 
+    @SerializedName(value = "algorithm")
+    public String algorithm;
+
+    @SerializedName(value = "placement")
+    public String placement;
+
+    /**
+     * Fix failed attempts by reshuffling only the shuffled rows at fault, faster for large tables but slightly less
+     * uniform.
+     */
+    @SerializedName(value = "repair")
+    public boolean repair;
+
+    @SerializedName(value = "soft")
+    public SoftConstraints softConstraints;
+
+    /**
+     * A stable 64-bit hash of everything that affects generation, used to identify the config in logs and exports.
+     */
+    public long fingerprint() {
+        Hasher hasher = Hashing.farmHashFingerprint64().newHasher()
+                .putInt(rowCount)
+                .putInt(columnCount)
+                .putInt(shuffledRowCount)
+                .putInt(separationDistance)
+                .putBoolean(findLucky)
+                .putBoolean(findLeaders);
+        for (String s : new String[]{disabledLastRowPositions, nameList, leaderNameSet, separatedPairs, separationMetric, algorithm}) {
+            hasher.putInt(s == null ? -1 : s.length()).putUnencodedChars(s == null ? "" : s);
+        }
+        // 未设置时不计入, 已有配置的指纹保持不变; 每项前写一个不同的标记, 以免不同字段的相同内容得到相同的指纹
+        if (placement != null) {
+            hasher.putByte((byte) 'P').putInt(placement.length()).putUnencodedChars(placement);
+        }
+        if (repair) {
+            hasher.putByte((byte) 'R');
+        }
+        if (pinnedSeats != null && !pinnedSeats.isBlank()) {
+            hasher.putByte((byte) 'S').putInt(pinnedSeats.length()).putUnencodedChars(pinnedSeats);
+        }
+        if (togetherPairs != null && !togetherPairs.isBlank()) {
+            hasher.putByte((byte) 'T').putInt(togetherPairs.length()).putUnencodedChars(togetherPairs);
+        }
+        hasher.putBoolean(softConstraints != null);
+        if (softConstraints != null) {
+            softConstraints.putInto(hasher);
+        }
+        return hasher.hash().asLong();
+    }
+
     public SeatConfig copy() {
         SeatConfig seatConfig = new SeatConfig();
         seatConfig.rowCount = rowCount;
@@ -62,8 +135,16 @@ public class SeatConfig {
         seatConfig.nameList = nameList;
         seatConfig.leaderNameSet = leaderNameSet;
         seatConfig.separatedPairs = separatedPairs;
+        seatConfig.pinnedSeats = pinnedSeats;
+        seatConfig.togetherPairs = togetherPairs;
+        seatConfig.separationDistance = separationDistance;
+        seatConfig.separationMetric = separationMetric;
         seatConfig.findLucky = findLucky;
         seatConfig.findLeaders = findLeaders;
+        seatConfig.algorithm = algorithm;
+        seatConfig.placement = placement;
+        seatConfig.repair = repair;
+        seatConfig.softConstraints = softConstraints == null ? null : softConstraints.copy();
         return seatConfig;
     }
 
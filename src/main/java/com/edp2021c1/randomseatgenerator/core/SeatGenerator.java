@@ -21,24 +21,39 @@
 package com.edp2021c1.randomseatgenerator.core;
 
 import com.edp2021c1.randomseatgenerator.util.CollectionUtils;
+import com.edp2021c1.randomseatgenerator.util.EventLog;
 import com.edp2021c1.randomseatgenerator.util.Pair;
 import com.edp2021c1.randomseatgenerator.util.Table;
 import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
 import com.edp2021c1.randomseatgenerator.util.i18n.I18N;
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
-import com.google.common.graph.GraphBuilder;
-import com.google.common.graph.ImmutableGraph;
-import com.google.common.graph.MutableGraph;
+import lombok.Getter;
 import org.jetbrains.annotations.Contract;
-import org.jetbrains.annotations.NotNull;
+import org.jspecify.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.IntPredicate;
+import java.util.random.RandomGenerator;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 public class SeatGenerator {
 
-    private static final int MAX_GENERATIONS = 65536;
+    public static final int MAX_GENERATIONS = 65536;
+
+    /**
+     * With repair on, a whole new attempt is made after this many tries, in case the ranges kept make the rest
+     * impossible to fix.
+     */
+    private static final int REPAIRS_PER_ATTEMPT = 32;
+
+    /**
+     * How many leaders in a row may be taken from their columns to find one for a column without a leader when
+     * rearranging a table, each of them leaving another column to be fixed.
+     */
+    private static final int LEADER_CHAIN_LENGTH = 3;
 
     private final int rowCount, columnCount, shuffledRowCount;
 
@@ -46,65 +61,324 @@ public class SeatGenerator {
 
     private final List<String> nameList;
 
+    /**
+     * Indexes in {@link #nameList} of each name, more than one for people sharing a name.
+     */
+    private final ListMultimap<String, Integer> ids;
+
     private final Set<String> leaderNameSet;
 
-    private final ImmutableGraph<@NotNull String> seperatedGraph;
+    /**
+     * Indexes in {@link #nameList} of the people to be kept apart, two per pair.
+     */
+    private final int[] separatedPairs;
+
+    /**
+     * The people each one is kept apart from.
+     */
+    private final int[][] separatedOf;
+
+    private final boolean[] isLeader;
+
+    /**
+     * People pinned to a seat and their seats, left out of the shuffle.
+     */
+    private final int[] pinnedPeople, pinnedSeats;
+
+    /**
+     * The others, in the order of the name list except that people sitting together follow each other.
+     */
+    private final int[] unpinned;
+
+    /**
+     * Index of each person in {@link #unpinned}, {@code -1} for pinned people.
+     */
+    private final int[] orderOf;
+
+    /**
+     * The person each one sits next to in the same row, {@code -1} for people without one.
+     */
+    private final int[] partner;
+
+    /**
+     * People sitting together, two per pair.
+     */
+    private final int[] togetherPairs;
+
+    private final boolean hasPairs;
+
+    /**
+     * Whether the seats of a position and the next one are side by side in one row.
+     */
+    private final boolean[] pairSlot;
+
+    /**
+     * Seat of each position of the shuffled people, row by row skipping pinned seats.
+     * People from {@link #fullRowEnd} on are put in random seats of {@link #lastRow} instead.
+     */
+    private final int[] seatAt;
+
+    /**
+     * Number of positions before each row, and one more for the end of the table.
+     */
+    private final int[] positionsBeforeRow;
+
+    /**
+     * Position of the person in each seat, or any position after {@link #fullRowEnd} for seats of {@link #lastRow},
+     * {@code -1} for pinned seats.
+     */
+    private final int[] positionAt;
+
+    private final int fullRowEnd, lastRow;
+
+    /**
+     * Columns of {@link #lastRow} people may be put in.
+     */
+    private final List<Integer> lastRowColumns;
+
+    /**
+     * Seats too close to each seat, see {@link SeparationMetric#neighbourhoods(int, int, int)}.
+     */
+    private final SeparationMetric.Neighbourhoods neighbourhoods;
+
+    @Nullable
+    private final SeatImprover improver;
 
     private final boolean findLucky, findLeaders;
 
+    /**
+     * Whether to give every column a leader before shuffling, see {@link PlacementStrategy#LEADERS_FIRST}.
+     */
+    private final boolean leadersFirst;
+
+    /**
+     * Whether a failed attempt is repaired by reshuffling only the ranges at fault, see {@link #repair}.
+     */
+    private final boolean repair;
+
+    @Getter
+    private final RandomAlgorithm algorithm;
+
+    @Getter
+    private final String configFingerprint;
+
+    /**
+     * Names in the config, shared by the {@link CompactSeatTable}s of tables generated here.
+     */
+    @Getter
+    private final Roster roster;
+
     public SeatGenerator(SeatConfig config) {
         this.rowCount = config.rowCount;
         this.columnCount = config.columnCount;
+        if ((long) rowCount * columnCount > Table.MAX_SIZE) {
+            throw TranslatableException.seat("too_many_seats", rowCount, columnCount, Table.MAX_SIZE);
+        }
         this.shuffledRowCount = config.shuffledRowCount;
         this.disabledLastRowIndexes = Arrays.stream(config.disabledLastRowPositions.split(" "))
                 .filter(s -> !s.isBlank())
                 .map(s -> Integer.parseInt(s) - 1).filter(i -> i < this.columnCount).collect(Collectors.toSet());
         this.nameList = Arrays.asList(config.nameList.split(" "));
+        this.roster = Roster.of(nameList);
         this.leaderNameSet = Arrays.stream(config.leaderNameSet.split(" ")).filter(s -> !s.isBlank()).collect(Collectors.toSet());
 
-        MutableGraph<@NotNull String> s = GraphBuilder.undirected().build();
-        nameList.forEach(s::addNode);
+        this.ids = ArrayListMultimap.create();
+        for (int i = 0; i < nameList.size(); i++) {
+            ids.put(nameList.get(i), i);
+        }
+        Set<List<String>> pairs = new LinkedHashSet<>();
         config.separatedPairs.lines().forEach(l -> {
             String[] split = l.split(" ", 2);
             if (split.length >= 2 && !Objects.equals(split[0], split[1])) {
-                s.putEdge(split[0], split[1]);
+                pairs.add(split[0].compareTo(split[1]) < 0 ? List.of(split[0], split[1]) : List.of(split[1], split[0]));
             }
         });
-        this.seperatedGraph = ImmutableGraph.copyOf(s);
-
+        IntStream.Builder separated = IntStream.builder();
+        for (List<String> pair : pairs) {
+            for (int a : ids.get(pair.get(0))) {
+                for (int b : ids.get(pair.get(1))) {
+                    separated.add(a).add(b);
+                }
+            }
+        }
+        this.separatedPairs = separated.build().toArray();
+        int[] separatedCounts = new int[nameList.size()];
+        for (int person : separatedPairs) {
+            separatedCounts[person]++;
+        }
+        this.separatedOf = new int[nameList.size()][];
+        for (int i = 0; i < separatedOf.length; i++) {
+            separatedOf[i] = new int[separatedCounts[i]];
+            separatedCounts[i] = 0;
+        }
+        for (int i = 0; i < separatedPairs.length; i += 2) {
+            int a = separatedPairs[i], b = separatedPairs[i + 1];
+            separatedOf[a][separatedCounts[a]++] = b;
+            separatedOf[b][separatedCounts[b]++] = a;
+        }
         this.findLucky = config.findLucky;
+
+        // 固定座位, 每行为 "名字 行 列", 不在名单中的名字忽略
+        int               seatCount    = Math.max(rowCount, 0) * Math.max(columnCount, 0);
+        boolean[]         isPinned     = new boolean[nameList.size()];
+        boolean[]         seatPinned   = new boolean[seatCount];
+        IntStream.Builder pinnedPeople = IntStream.builder();
+        IntStream.Builder pinnedSeats  = IntStream.builder();
+        for (String line : Objects.requireNonNullElse(config.pinnedSeats, "").lines().map(String::trim).filter(l -> !l.isEmpty()).toList()) {
+            String[] split = line.split(" +");
+            if (split.length < 3 || !ids.containsKey(split[0])) {
+                continue;
+            }
+            int person = ids.get(split[0]).stream().filter(i -> !isPinned[i]).findFirst().orElse(-1);
+            int row, column;
+            try {
+                row = Integer.parseInt(split[1]) - 1;
+                column = Integer.parseInt(split[2]) - 1;
+            } catch (NumberFormatException e) {
+                throw TranslatableException.seat("invalid_pin", line);
+            }
+            if (person < 0 || row < 0 || row >= rowCount || column < 0 || column >= columnCount || seatPinned[row * columnCount + column]) {
+                throw TranslatableException.seat("invalid_pin", line);
+            }
+            isPinned[person] = true;
+            seatPinned[row * columnCount + column] = true;
+            pinnedPeople.add(person);
+            pinnedSeats.add(row * columnCount + column);
+        }
+        this.pinnedPeople = pinnedPeople.build().toArray();
+        this.pinnedSeats = pinnedSeats.build().toArray();
+
+        // 需坐在一起的两人, 每行为 "名字 名字", 不在名单中的名字忽略
+        int[]             partner  = new int[nameList.size()];
+        IntStream.Builder together = IntStream.builder();
+        Arrays.fill(partner, -1);
+        for (String line : Objects.requireNonNullElse(config.togetherPairs, "").lines().map(String::trim).filter(l -> !l.isEmpty()).toList()) {
+            String[] split = line.split(" +");
+            if (split.length < 2 || !ids.containsKey(split[0]) || !ids.containsKey(split[1])) {
+                continue;
+            }
+            int a = ids.get(split[0]).stream().filter(i -> partner[i] < 0 && !isPinned[i]).findFirst().orElse(-1);
+            int b = ids.get(split[1]).stream().filter(i -> partner[i] < 0 && !isPinned[i] && i != a).findFirst().orElse(-1);
+            if (a < 0 || b < 0) {
+                throw TranslatableException.seat("invalid_together", line);
+            }
+            partner[a] = b;
+            partner[b] = a;
+            together.add(a).add(b);
+        }
+        for (int i = 0; i < separatedPairs.length; i += 2) {
+            if (partner[separatedPairs[i]] == separatedPairs[i + 1]) {
+                throw TranslatableException.seat("invalid_together", nameList.get(separatedPairs[i]) + " " + nameList.get(separatedPairs[i + 1]));
+            }
+        }
+        this.partner = partner;
+        this.togetherPairs = together.build().toArray();
+        this.hasPairs = togetherPairs.length > 0;
+
+        // 两人排在其中靠前者的位置, 以便分在同一个范围内
+        boolean[]         queued   = new boolean[nameList.size()];
+        IntStream.Builder order    = IntStream.builder();
+        for (int i = 0; i < nameList.size(); i++) {
+            if (isPinned[i] || queued[i]) {
+                continue;
+            }
+            order.add(i);
+            queued[i] = true;
+            if (partner[i] >= 0) {
+                order.add(partner[i]);
+                queued[partner[i]] = true;
+            }
+        }
+        this.unpinned = order.build().toArray();
+        this.orderOf = new int[nameList.size()];
+        Arrays.fill(orderOf, -1);
+        for (int k = 0; k < unpinned.length; k++) {
+            orderOf[unpinned[k]] = k;
+        }
+
+        // 其余的人从前往后坐满各行, 剩下的随机坐在下一行
+        int seated = unpinned.length - (findLucky ? 1 : 0);
+        this.seatAt = IntStream.range(0, seatCount).filter(seat -> !seatPinned[seat]).toArray();
+        this.positionsBeforeRow = new int[Math.max(rowCount, 0) + 1];
+        for (int row = 0, k = 0; row < rowCount; row++) {
+            positionsBeforeRow[row] = k;
+            for (int column = 0; column < columnCount; column++) {
+                k += seatPinned[row * columnCount + column] ? 0 : 1;
+            }
+            positionsBeforeRow[row + 1] = k;
+        }
+        int row = 0;
+        while (row < rowCount && positionsBeforeRow[row + 1] <= seated) {
+            row++;
+        }
+        this.lastRow = row;
+        this.fullRowEnd = positionsBeforeRow[row];
+        this.pairSlot = new boolean[seatAt.length];
+        for (int k = 0; k + 1 < seatAt.length; k++) {
+            pairSlot[k] = seatAt[k + 1] == seatAt[k] + 1 && seatAt[k + 1] % columnCount != 0;
+        }
+        this.lastRowColumns = IntStream.range(0, columnCount)
+                .filter(column -> lastRow >= rowCount || !seatPinned[lastRow * columnCount + column])
+                .filter(column -> lastRow != rowCount - 1 || !disabledLastRowIndexes.contains(column))
+                .boxed().toList();
+        this.positionAt = new int[seatCount];
+        Arrays.fill(positionAt, -1);
+        for (int k = 0; k < Math.min(fullRowEnd, seatAt.length); k++) {
+            positionAt[seatAt[k]] = k;
+        }
+        if (lastRow < rowCount && seated > fullRowEnd) {
+            for (int column : lastRowColumns) {
+                positionAt[lastRow * columnCount + column] = seated - 1;
+            }
+        }
+
+        this.isLeader = new boolean[nameList.size()];
+        for (int i = 0; i < nameList.size(); i++) {
+            isLeader[i] = leaderNameSet.contains(nameList.get(i));
+        }
+
+        int              distance = config.separationDistance <= 0 ? 1 : config.separationDistance;
+        SeparationMetric metric   = SeparationMetric.getById(config.separationMetric);
+        this.neighbourhoods = metric.neighbourhoods(Math.max(rowCount, 0), Math.max(columnCount, 0), distance);
+        this.improver = config.softConstraints == null ? null
+                : new SeatImprover(config.softConstraints, nameList.size(), columnCount, ids, separatedPairs, partner, neighbourhoods);
+
         this.findLeaders = config.findLeaders;
+        this.leadersFirst = findLeaders && PlacementStrategy.getById(config.placement) == PlacementStrategy.LEADERS_FIRST;
+        this.repair = config.repair;
+        this.algorithm = RandomAlgorithm.getById(config.algorithm);
+        this.configFingerprint = "%016x".formatted(config.fingerprint());
     }
 
-    private boolean checkAndFindLeaders(SeatTable seatTable, Random random) {
+    private AttemptResult checkAndFindLeaders(SeatTable seatTable, Scratch scratch, RandomGenerator random) {
         // Check seperated
-        String[] data = seatTable.getData();
-        for (int i = 0; i < data.length; i++) {
-            String s = data[i];
-            if (s == null) {
-                continue;
-            }
-            if (!Collections.disjoint(
-                    seatTable.getNeighbours(i / columnCount, i % columnCount),
-                    seperatedGraph.adjacentNodes(s)
-            )) {
-                return false;
+        int[] seatOf = scratch.seatOf;
+        for (int i = 0; i < separatedPairs.length; i += 2) {
+            int a = seatOf[separatedPairs[i]], b = seatOf[separatedPairs[i + 1]];
+            if (a >= 0 && b >= 0 && neighbourhoods.near(a, b)) {
+                scratch.violatedSeatA = a;
+                scratch.violatedSeatB = b;
+                return AttemptResult.SEPARATION_VIOLATED;
             }
         }
 
         // Check and find leaders
         if (seatTable.hasLeaders()) {
+            int[] personAt = scratch.personAt;
             for (int i = 0; i < columnCount; i++) {
-                Table.Column<String> c       = seatTable.getColumn(i);
-                List<Integer>        indexes = IntStream.range(0, rowCount).filter(j -> leaderNameSet.contains(c.get(j))).boxed().toList();
+                int           column  = i;
+                List<Integer> indexes = IntStream.range(0, rowCount).filter(j -> {
+                    int p = personAt[j * columnCount + column];
+                    return p >= 0 && isLeader[p];
+                }).boxed().toList();
                 if (indexes.isEmpty()) {
-                    return false;
+                    return AttemptResult.COLUMN_WITHOUT_LEADER;
                 }
                 seatTable.getLeaders()[i] = CollectionUtils.randomlyPickOne(indexes, random);
             }
         }
 
-        return true;
+        return AttemptResult.SUCCESS;
     }
 
     private void checkPositive() {
@@ -130,13 +404,16 @@ public class SeatGenerator {
         return table;
     }
 
-    @Contract(pure = true)
-    public SeatTable generate(String seed) {
-        // Check config
+    /**
+     * Checks the config and splits the people in seats into the ranges shuffled in each attempt.
+     */
+    List<Pair<Integer, Integer>> prepare() {
         checkPositive();
 
-        int seatCount         = rowCount * columnCount - disabledLastRowIndexes.size();
-        int peopleInSeatCount = nameList.size() - (findLucky ? 1 : 0);
+        int seatCount = seatAt.length - (int) disabledLastRowIndexes.stream()
+                .filter(column -> Arrays.binarySearch(seatAt, (rowCount - 1) * columnCount + column) >= 0)
+                .count();
+        int peopleInSeatCount = unpinned.length - (findLucky ? 1 : 0);
         if (seatCount < peopleInSeatCount) {
             throw TranslatableException.seat("not_enough", I18N.constant("seats"), seatCount, peopleInSeatCount);
         }
@@ -145,63 +422,949 @@ public class SeatGenerator {
             throw TranslatableException.seat("not_enough", I18N.constant("leaders"), leaderNameSet.size(), columnCount);
         }
 
-        int block = shuffledRowCount * columnCount;
-
+        // 每 shuffledRowCount 行为一个范围, 固定的座位不计
         List<Pair<Integer, Integer>> rangesToBeShuffled = Lists.newLinkedList();
-        {
-            int i = peopleInSeatCount;
-            while (i > block) {
-                rangesToBeShuffled.add(new Pair<>(peopleInSeatCount - i, peopleInSeatCount - i + block));
-                i -= block;
-            }
-            if (i < columnCount) {
-                rangesToBeShuffled.set(rangesToBeShuffled.size() - 1, new Pair<>(peopleInSeatCount - i - block, peopleInSeatCount));
-            } else {
-                rangesToBeShuffled.add(new Pair<>(peopleInSeatCount - i, peopleInSeatCount));
+        int                          start              = 0;
+        for (int row = shuffledRowCount; ; row += shuffledRowCount) {
+            int end = positionsBeforeRow[Math.min(row, rowCount)];
+            if (end >= peopleInSeatCount) {
+                break;
+            }
+            rangesToBeShuffled.add(new Pair<>(start, end));
+            start = end;
+        }
+        if (peopleInSeatCount - start < columnCount && !rangesToBeShuffled.isEmpty()) {
+            rangesToBeShuffled.set(rangesToBeShuffled.size() - 1, new Pair<>(rangesToBeShuffled.getLast().first, peopleInSeatCount));
+        } else {
+            rangesToBeShuffled.add(new Pair<>(start, peopleInSeatCount));
+        }
+        return rangesToBeShuffled;
+    }
+
+    SeatTable newSeatTable(String seed) {
+        SeatTable table = new SeatTable(rowCount, columnCount, findLeaders, seed, algorithm.id);
+        table.setConfigFingerprint(configFingerprint);
+        return table;
+    }
+
+    Scratch newScratch() {
+        return new Scratch(nameList.size(), rowCount * columnCount);
+    }
+
+    /**
+     * Fills the table once and checks it, leaving leaders and the lucky person set on success.
+     * Draws from {@code random} in the same order as shuffling the names in place would, so seeds keep their tables.
+     */
+    AttemptResult attempt(SeatTable seatTable, Scratch scratch, List<Pair<Integer, Integer>> ranges, RandomGenerator random) {
+        String[] data     = seatTable.getData();
+        int[]    people   = scratch.people;
+        int[]    seatOf   = scratch.seatOf;
+        int[]    personAt = scratch.personAt;
+        Arrays.fill(data, null);
+        Arrays.fill(seatOf, -1);
+        Arrays.fill(personAt, -1);
+
+        int size = unpinned.length;
+        System.arraycopy(unpinned, 0, people, 0, size);
+        scratch.lucky = -1;
+        if (findLucky) {
+            int lucky = random.nextInt(size);
+            scratch.lucky = people[lucky];
+            seatTable.setLuckyPerson(nameList.get(people[lucky]));
+            System.arraycopy(people, lucky + 1, people, lucky, --size - lucky);
+        }
+
+        if (leadersFirst || hasPairs) {
+            AttemptResult placed = placeFirst(scratch, ranges, size, random);
+            if (placed != AttemptResult.SUCCESS) {
+                return placed;
+            }
+        } else {
+            for (Pair<Integer, Integer> range : ranges) {
+                // 与 Collections.shuffle 相同的交换顺序
+                for (int i = range.second - range.first, from = range.first; i > 1; i--) {
+                    int j = from + random.nextInt(i), t = people[from + i - 1];
+                    people[from + i - 1] = people[j];
+                    people[j] = t;
+                }
             }
         }
 
-        Random random = new Random(seed == null ? 0L : seed.hashCode());
+        for (int k = 0; k < fullRowEnd; k++) {
+            place(data, scratch, seatAt[k], people[k]);
+        }
+        placeLastRow(data, scratch, size, random);
+        for (int k = 0; k < pinnedPeople.length; k++) {
+            place(data, scratch, pinnedSeats[k], pinnedPeople[k]);
+        }
+
+        return checkAndFindLeaders(seatTable, scratch, random);
+    }
+
+    /**
+     * Puts the people after the last full row into random seats of the row after it.
+     */
+    private void placeLastRow(String[] data, Scratch scratch, int size, RandomGenerator random) {
+        List<Integer> indexes = CollectionUtils.randomlyPick(lastRowColumns, size - fullRowEnd, random);
+        int           k       = 0;
+        for (int index : indexes) {
+            place(data, scratch, lastRow * columnCount + index, scratch.people[fullRowEnd + k++]);
+        }
+    }
+
+    /**
+     * Tries to fix a failed attempt by reshuffling only the ranges at fault and keeping the rest of the table:
+     * the ranges of both people of a violated pair, or a random range holding leaders for a column without one.
+     * Cheaper than a new attempt when there are many ranges, but unlike one the result is not exactly uniform, so
+     * this is only done when asked for.
+     */
+    private AttemptResult repair(SeatTable seatTable, Scratch scratch, List<Pair<Integer, Integer>> ranges, AttemptResult failure, RandomGenerator random) {
+        if (leadersFirst && failure == AttemptResult.COLUMN_WITHOUT_LEADER || failure == AttemptResult.NO_ROOM_FOR_PAIR) {
+            // 座位中的组长不够, 只有重新抽取幸运儿才可能解决; 两人坐不下时也重新生成
+            return attempt(seatTable, scratch, ranges, random);
+        }
+
+        int size = unpinned.length - (findLucky ? 1 : 0);
+
+        Pair<Integer, Integer> first, second = null;
+        if (failure == AttemptResult.SEPARATION_VIOLATED) {
+            // 固定座位上的人不参与打乱
+            int a = positionAt[scratch.violatedSeatA], b = positionAt[scratch.violatedSeatB];
+            first = a < 0 ? null : rangeOf(ranges, a);
+            second = b < 0 ? null : rangeOf(ranges, b);
+            if (first == null || first == second) {
+                first = second;
+                second = null;
+            }
+            if (first == null) {
+                return attempt(seatTable, scratch, ranges, random);
+            }
+        } else {
+            List<Pair<Integer, Integer>> withLeaders = new ArrayList<>();
+            for (Pair<Integer, Integer> range : ranges) {
+                for (int k = range.first; k < range.second; k++) {
+                    if (isLeader[scratch.people[k]]) {
+                        withLeaders.add(range);
+                        break;
+                    }
+                }
+            }
+            if (withLeaders.isEmpty()) {
+                return failure;
+            }
+            first = withLeaders.get(random.nextInt(withLeaders.size()));
+        }
+
+        String[] data = seatTable.getData();
+        if (!reshuffle(data, scratch, first, random) || second != null && !reshuffle(data, scratch, second, random)) {
+            return AttemptResult.NO_ROOM_FOR_PAIR;
+        }
+        if (first.second > fullRowEnd || second != null && second.second > fullRowEnd) {
+            placeLastRow(data, scratch, size, random);
+        }
+        return checkAndFindLeaders(seatTable, scratch, random);
+    }
+
+    private static Pair<Integer, Integer> rangeOf(List<Pair<Integer, Integer>> ranges, int position) {
+        for (Pair<Integer, Integer> range : ranges) {
+            if (position < range.second) {
+                return range;
+            }
+        }
+        throw new IllegalArgumentException("Position out of ranges: " + position);
+    }
+
+    /**
+     * Takes the people of a range out of their seats, shuffles them and seats those before {@link #fullRowEnd} again,
+     * the others are left to {@link #placeLastRow}.
+     * Leaders placed by {@link #placeLeaders} stay where they are, people sitting together are placed again.
+     *
+     * @return false if there is no room left for a pair sitting together
+     */
+    private boolean reshuffle(String[] data, Scratch scratch, Pair<Integer, Integer> range, RandomGenerator random) {
+        int[] people = scratch.people;
+        for (int k = range.first; k < range.second; k++) {
+            int person = people[k], seat = scratch.seatOf[person];
+            if (seat >= 0) {
+                data[seat] = null;
+                scratch.personAt[seat] = -1;
+                scratch.seatOf[person] = -1;
+            }
+        }
+
+        if (leadersFirst || hasPairs) {
+            if (hasPairs) {
+                for (int k = range.first; k < range.second; k++) {
+                    int person = scratch.forcedAt[k];
+                    if (person >= 0 && paired(scratch, person)) {
+                        scratch.forcedAt[k] = -1;
+                        scratch.forced[person] = false;
+                    }
+                }
+                if (!placeTogether(scratch, range, random)) {
+                    return false;
+                }
+            }
+            shuffleRest(scratch, range, random);
+        } else {
+            for (int i = range.second - range.first, from = range.first; i > 1; i--) {
+                int r = from + random.nextInt(i), t = people[from + i - 1];
+                people[from + i - 1] = people[r];
+                people[r] = t;
+            }
+        }
+
+        for (int k = range.first; k < Math.min(range.second, fullRowEnd); k++) {
+            place(data, scratch, seatAt[k], people[k]);
+        }
+        return true;
+    }
+
+    /**
+     * Whether a person has to sit next to someone in this attempt, that is their partner is not the lucky person.
+     */
+    private boolean paired(Scratch scratch, int person) {
+        return partner[person] >= 0 && partner[person] != scratch.lucky;
+    }
+
+    /**
+     * Places people sitting together and, with {@link #leadersFirst}, a leader for every column before shuffling the
+     * others into the remaining seats of their ranges.
+     */
+    private AttemptResult placeFirst(Scratch scratch, List<Pair<Integer, Integer>> ranges, int size, RandomGenerator random) {
+        Arrays.fill(scratch.forcedAt, -1);
+        Arrays.fill(scratch.forced, false);
+
+        if (hasPairs) {
+            if (!keepPairsInRanges(scratch, ranges, size)) {
+                return AttemptResult.NO_ROOM_FOR_PAIR;
+            }
+            for (Pair<Integer, Integer> range : ranges) {
+                if (!placeTogether(scratch, range, random)) {
+                    return AttemptResult.NO_ROOM_FOR_PAIR;
+                }
+            }
+        }
+        if (leadersFirst && !placeLeaders(scratch, ranges, size, random)) {
+            return AttemptResult.COLUMN_WITHOUT_LEADER;
+        }
+        for (Pair<Integer, Integer> range : ranges) {
+            shuffleRest(scratch, range, random);
+        }
+        return AttemptResult.SUCCESS;
+    }
+
+    /**
+     * Moves pairs split by the end of a range into one range, by swapping the nearest person without a partner
+     * across the boundary, so the height order changes by one position at most for the people in between.
+     * People of a pair are next to each other in {@link #unpinned}, so this is only needed at the boundaries.
+     *
+     * @return false if there is nobody to swap
+     */
+    private boolean keepPairsInRanges(Scratch scratch, List<Pair<Integer, Integer>> ranges, int size) {
+        int[] people = scratch.people;
+        for (Pair<Integer, Integer> range : ranges) {
+            int end = range.second;
+            if (end >= size || !paired(scratch, people[end - 1]) || partner[people[end - 1]] != people[end]) {
+                continue;
+            }
+            int single = end - 2;
+            while (single >= range.first && paired(scratch, people[single])) {
+                single--;
+            }
+            if (single >= range.first) {
+                int person = people[single];
+                System.arraycopy(people, single + 1, people, single, end - single);
+                people[end] = person;
+                continue;
+            }
+            single = end + 1;
+            while (single < size && paired(scratch, people[single])) {
+                single++;
+            }
+            if (single >= size) {
+                return false;
+            }
+            int person = people[single];
+            System.arraycopy(people, end - 1, people, end, single - end + 1);
+            people[end - 1] = person;
+        }
+        return true;
+    }
+
+    /**
+     * Puts every pair of a range in two random seats side by side, both in full rows of the range.
+     * The pairs are placed one by one, so this may fail when the free seats left are scattered.
+     *
+     * @return false if there is no room left for a pair
+     */
+    private boolean placeTogether(Scratch scratch, Pair<Integer, Integer> range, RandomGenerator random) {
+        int[]     people   = scratch.people;
+        int[]     forcedAt = scratch.forcedAt;
+        boolean[] forced   = scratch.forced;
+        int       end      = Math.min(range.second, fullRowEnd);
+        for (int k = range.first; k < range.second; k++) {
+            int person = people[k];
+            if (!paired(scratch, person) || forced[person]) {
+                continue;
+            }
+            int slots = 0;
+            for (int position = range.first; position + 1 < end; position++) {
+                slots += pairSlot[position] && forcedAt[position] < 0 && forcedAt[position + 1] < 0 ? 1 : 0;
+            }
+            if (slots == 0) {
+                return false;
+            }
+            for (int position = range.first, n = random.nextInt(slots); position + 1 < end; position++) {
+                if (pairSlot[position] && forcedAt[position] < 0 && forcedAt[position + 1] < 0 && n-- == 0) {
+                    // 左右随机
+                    boolean left = random.nextBoolean();
+                    forcedAt[position] = left ? person : partner[person];
+                    forcedAt[position + 1] = left ? partner[person] : person;
+                    break;
+                }
+            }
+            forced[person] = true;
+            forced[partner[person]] = true;
+        }
+        return true;
+    }
+
+    /**
+     * Picks a leader for every column at random and puts them in a random full row of their own range, so the check
+     * for leaders can't fail.
+     * The others are shuffled into the remaining seats of their range as usual, though tables with several leaders
+     * in one column come up a little more often than with plain shuffling.
+     *
+     * @return false if there are fewer leaders in seats than columns
+     */
+    private boolean placeLeaders(Scratch scratch, List<Pair<Integer, Integer>> ranges, int size, RandomGenerator random) {
+        int[]     people   = scratch.people;
+        int[]     pool     = scratch.pool;
+        int[]     forcedAt = scratch.forcedAt;
+        boolean[] forced   = scratch.forced;
+
+        // 固定座位上以及已与同伴坐下的组长所在的列不用再安排
+        boolean[] covered = new boolean[columnCount];
+        int       needed  = columnCount;
+        for (int k = 0; k < pinnedPeople.length; k++) {
+            if (isLeader[pinnedPeople[k]] && !covered[pinnedSeats[k] % columnCount]) {
+                covered[pinnedSeats[k] % columnCount] = true;
+                needed--;
+            }
+        }
+        for (int k = 0; k < size; k++) {
+            if (forcedAt[k] >= 0 && isLeader[forcedAt[k]] && !covered[seatAt[k] % columnCount]) {
+                covered[seatAt[k] % columnCount] = true;
+                needed--;
+            }
+        }
+
+        int leaderCount = 0;
+        for (int k = 0; k < size; k++) {
+            if (isLeader[people[k]] && !forced[people[k]]) {
+                pool[leaderCount++] = k;
+            }
+        }
+        if (needed > 0 && (leaderCount < needed || fullRowEnd == 0)) {
+            return false;
+        }
+
+        // 为每列随机选出一名组长, 放到其所在范围内整行中该列随机的一个空座位
+        for (int column = 0, picked = 0; column < columnCount; column++) {
+            if (covered[column]) {
+                continue;
+            }
+            int pick = picked + random.nextInt(leaderCount - picked), k = pool[pick];
+            pool[pick] = pool[picked];
+            pool[picked++] = k;
+
+            Pair<Integer, Integer> range = rangeOf(ranges, k);
+            int                    end   = Math.min(range.second, fullRowEnd);
+            int                    seats = 0;
+            for (int position = range.first; position < end; position++) {
+                seats += seatAt[position] % columnCount == column && forcedAt[position] < 0 ? 1 : 0;
+            }
+            if (seats == 0) {
+                return false;
+            }
+            for (int position = range.first, n = random.nextInt(seats); position < end; position++) {
+                if (seatAt[position] % columnCount == column && forcedAt[position] < 0 && n-- == 0) {
+                    forcedAt[position] = people[k];
+                    forced[people[k]] = true;
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Shuffles the people of a range not placed yet into the seats of the range left.
+     */
+    private void shuffleRest(Scratch scratch, Pair<Integer, Integer> range, RandomGenerator random) {
+        int[] people = scratch.people;
+        int[] pool   = scratch.pool;
+        int   n      = 0;
+        for (int k = range.first; k < range.second; k++) {
+            if (!scratch.forced[people[k]]) {
+                pool[n++] = people[k];
+            }
+        }
+        for (int i = n; i > 1; i--) {
+            int j = random.nextInt(i), t = pool[i - 1];
+            pool[i - 1] = pool[j];
+            pool[j] = t;
+        }
+        for (int k = range.first, i = 0; k < range.second; k++) {
+            people[k] = scratch.forcedAt[k] >= 0 ? scratch.forcedAt[k] : pool[i++];
+        }
+    }
+
+    private void place(String[] data, Scratch scratch, int seat, int person) {
+        data[seat] = nameList.get(person);
+        scratch.seatOf[person] = seat;
+        scratch.personAt[seat] = person;
+    }
+
+    @Contract(pure = true)
+    public SeatTable generate(String seed) {
+        long start = System.nanoTime();
+
+        List<Pair<Integer, Integer>> ranges = prepare();
+
+        RandomGenerator random = algorithm.create(seed);
 
         int loopTimes = 0;
 
-        SeatTable    seatTable = new SeatTable(rowCount, columnCount, findLeaders, seed);
-        List<String> names     = Lists.newArrayListWithExpectedSize(nameList.size());
+        SeatTable     seatTable = newSeatTable(seed);
+        Scratch       scratch   = newScratch();
+        AttemptResult result    = null;
         do {
             if (loopTimes >= MAX_GENERATIONS) {
                 throw TranslatableException.seat("too_many_generations", MAX_GENERATIONS);
             }
+            // 修复可能因其余部分而无法成功, 定期重新生成整张表
+            result = repair && result != null && loopTimes % REPAIRS_PER_ATTEMPT != 0
+                    ? repair(seatTable, scratch, ranges, result, random)
+                    : attempt(seatTable, scratch, ranges, random);
+            loopTimes++;
+        } while (result != AttemptResult.SUCCESS);
 
-            Arrays.fill(seatTable.getData(), null);
+        if (improver != null) {
+            improver.improve(seatTable, scratch.people, scratch.personAt, scratch.seatOf, ranges, random);
+        }
 
-            names.clear();
-            names.addAll(nameList);
-            if (findLucky) {
-                seatTable.setLuckyPerson(names.remove(random.nextInt(nameList.size())));
+        seatTable.fillEmpty();
+
+        EventLog.generated(seed, configFingerprint, algorithm.id, loopTimes, System.nanoTime() - start);
+
+        return seatTable;
+    }
+
+    /**
+     * Derives a table from an earlier one of this config by moving everyone the same way instead of shuffling.
+     * <p>
+     * Leaders keep leading the column they moved to where they can, and whatever the move broke is fixed as in
+     * {@link #update(SeatTable)}.
+     * The result only depends on the table and the rotation.
+     *
+     * @throws TranslatableException if the table does not fit the config, or the moved table can't be fixed
+     */
+    @Contract(pure = true)
+    public SeatTable rotate(SeatTable previous, Rotation rotation) {
+        return rearrange(previous, rotation, "%s+%s".formatted(previous.getSeed(), rotation));
+    }
+
+    /**
+     * Brings an earlier table up to date with this config, moving as few people as possible instead of generating a
+     * new table.
+     * <p>
+     * People no longer in the name list leave, and new people take the free seat nearest to where their place in the
+     * name list would put them.
+     * Then pinned people go back to their seats, and disabled seats, pairs sitting together, separated pairs and
+     * columns without a leader are fixed by swapping people, searching outwards from the seats concerned with the
+     * same row first, so the search takes time in proportion to the changes rather than to the class.
+     *
+     * @throws TranslatableException if the table does not fit the config, there are not enough seats, or the table
+     *                               can't be fixed
+     */
+    @Contract(pure = true)
+    public SeatTable update(SeatTable previous) {
+        return rearrange(previous, Rotation.NONE, previous.getSeed() + "+update");
+    }
+
+    private SeatTable rearrange(SeatTable previous, Rotation rotation, String seed) {
+        long start = System.nanoTime();
+
+        checkPositive();
+        if (previous.getRowCount() != rowCount || previous.getColumnCount() != columnCount) {
+            throw TranslatableException.seat("table_mismatch", previous.getRowCount(), previous.getColumnCount(), rowCount, columnCount);
+        }
+
+        SeatTable table = new SeatTable(rowCount, columnCount, findLeaders, seed, previous.getAlgorithm());
+        table.setConfigFingerprint(configFingerprint);
+        Arrays.fill(table.getLeaders(), -1);
+        Rearrangement layout = new Rearrangement(table.getData(), table.getLeaders(), seed);
+
+        // 平移, 名单中已没有的人离开座位, 同名的人按出现的顺序对应
+        String[]             before = previous.getData();
+        Map<String, Integer> seen   = new HashMap<>();
+        for (int seat = 0; seat < before.length; seat++) {
+            if (before[seat] == null || before[seat].equals("-")) {
+                continue;
+            }
+            List<Integer> same = ids.get(before[seat]);
+            int           n    = same.size() <= 1 ? 0 : seen.merge(before[seat], 1, Integer::sum) - 1;
+            if (n < same.size() && layout.seatOf[same.get(n)] < 0) {
+                layout.put(rotation.seatAfter(seat, rowCount, columnCount), same.get(n));
             }
+        }
 
-            for (Pair<Integer, Integer> range : rangesToBeShuffled) {
-                Collections.shuffle(names.subList(range.first, range.second), random);
+        // 幸运儿还在名单中就保留
+        int lucky = -1;
+        if (findLucky && previous.getLuckyPerson() != null) {
+            for (int person : ids.get(previous.getLuckyPerson())) {
+                if (layout.seatOf[person] < 0) {
+                    lucky = person;
+                    break;
+                }
             }
+        }
+        table.setLuckyPerson(lucky >= 0 ? nameList.get(lucky) : null);
 
-            int i = names.size() / columnCount;
-            int j = i * columnCount;
-            Collections.copy(seatTable.getDataAsList(), names.subList(0, j));
-            List<Integer> indexes = Lists.newLinkedList(IntStream.range(0, columnCount).boxed().toList());
-            if (i == rowCount - 1) {
-                indexes.removeAll(disabledLastRowIndexes);
+        // 固定座位上的幸运儿不坐, 那个座位也空着; 不可用的座位也可以是固定座位
+        int seatCount   = rowCount * columnCount - disabledLastRowIndexes.size();
+        int peopleCount = nameList.size() - (lucky >= 0 ? 1 : 0);
+        for (int k = 0; k < pinnedPeople.length; k++) {
+            if (pinnedPeople[k] == lucky) {
+                seatCount -= layout.disabled[pinnedSeats[k]] ? 0 : 1;
+            } else {
+                seatCount += layout.disabled[pinnedSeats[k]] ? 1 : 0;
             }
-            indexes = CollectionUtils.randomlyPick(indexes, names.size() - j, random);
-            int k = 0;
-            for (int index : indexes) {
-                seatTable.getData()[j + index] = names.get(j + k++);
+        }
+        if (seatCount < peopleCount) {
+            throw TranslatableException.seat("not_enough", I18N.constant("seats"), seatCount, peopleCount);
+        }
+
+        for (int k = 0; k < pinnedPeople.length; k++) {
+            int person = pinnedPeople[k], seat = pinnedSeats[k];
+            if (layout.seatOf[person] == seat || person == lucky) {
+                continue;
             }
-            loopTimes++;
-        } while (!checkAndFindLeaders(seatTable, random));
+            if (layout.seatOf[person] >= 0) {
+                layout.swap(layout.seatOf[person], seat);
+            } else {
+                // 新来的人坐到固定座位上, 原来坐在那的人换到最近的空座位
+                if (layout.personAt[seat] >= 0) {
+                    layout.swap(seat, layout.nearestEmpty(seat));
+                }
+                layout.put(seat, person);
+            }
+        }
 
-        seatTable.fillEmpty();
+        // 新来的人坐到按名单中的位置应坐的座位附近的空座位
+        for (int person = 0; person < nameList.size(); person++) {
+            if (layout.seatOf[person] < 0 && person != lucky && orderOf[person] >= 0) {
+                layout.put(layout.nearestEmpty(seatAt[Math.min(orderOf[person], seatAt.length - 1)]), person);
+            }
+        }
+
+        // 被移到不可用座位上的人换到最近的空座位, 固定在那里的人不动
+        for (int column : disabledLastRowIndexes) {
+            int seat = (rowCount - 1) * columnCount + column;
+            if (layout.data[seat] != null && !layout.seatPinned[seat]) {
+                layout.swap(seat, layout.nearestEmpty(seat));
+            }
+        }
+
+        // 循环平移会把同一行两端的人分开, 把两人换到最近的相邻座位
+        for (int i = 0; i < togetherPairs.length; i += 2) {
+            int a = togetherPairs[i], b = togetherPairs[i + 1];
+            if (layout.seatOf[a] >= 0 && layout.seatOf[b] >= 0 && !besides(layout.seatOf[a], layout.seatOf[b])
+                && !layout.movePair(a, b, -1)) {
+                throw TranslatableException.seat("rearrange_failed", seed);
+            }
+        }
+
+        for (int i = 0; i < separatedPairs.length; i += 2) {
+            int a = separatedPairs[i], b = separatedPairs[i + 1];
+            if (layout.seatOf[a] >= 0 && layout.seatOf[b] >= 0 && layout.near(layout.seatOf[a], layout.seatOf[b])
+                && !layout.moveAway(b) && !layout.moveAway(a)) {
+                throw TranslatableException.seat("rearrange_failed", seed);
+            }
+        }
+
+        if (findLeaders) {
+            // 之前的组长移到哪一列就还是哪一列的组长
+            int[] leaders = table.getLeaders();
+            if (previous.hasLeaders()) {
+                for (int column = 0; column < columnCount; column++) {
+                    // 导入的座位表中可能有某列没有组长, 行号为 -1
+                    int row = previous.getLeaders()[column];
+                    if (row < 0) {
+                        continue;
+                    }
+                    int from   = row * columnCount + column;
+                    int to     = rotation.seatAfter(from, rowCount, columnCount);
+                    int person = layout.personAt[to];
+                    if (person >= 0 && isLeader[person] && nameList.get(person).equals(before[from])) {
+                        leaders[to % columnCount] = to / columnCount;
+                    }
+                }
+            }
+            for (int column = 0; column < columnCount; column++) {
+                if (leaders[column] < 0 && !layout.findLeader(column, LEADER_CHAIN_LENGTH)) {
+                    throw TranslatableException.seat("rearrange_failed", seed);
+                }
+            }
+        }
+
+        table.fillEmpty();
+
+        EventLog.rearranged(seed, configFingerprint, rotation.toString(), layout.swaps, System.nanoTime() - start);
+
+        return table;
+    }
+
+    private boolean besides(int a, int b) {
+        return a / columnCount == b / columnCount && Math.abs(a - b) == 1;
+    }
+
+    /**
+     * A table being rearranged by {@link #rearrange}, changed by swapping single people or pairs sitting together and
+     * checking every swap against the constraints it could break.
+     */
+    private final class Rearrangement {
+
+        private final String[] data;
+
+        private final int[] personAt, seatOf;
+
+        /**
+         * Row of the leader of each column, {@code -1} until chosen.
+         */
+        private final int[] leaders;
+
+        private final boolean[] seatPinned, disabled;
+
+        private final String seed;
+
+        /**
+         * Seats swapped so far, two per swap, so that a failed fix can be undone with {@link #rollback(int)}.
+         */
+        private int[] log = new int[64];
+
+        private int logSize, swaps;
+
+        private Rearrangement(String[] data, int[] leaders, String seed) {
+            this.data = data;
+            this.seed = seed;
+            this.leaders = leaders;
+            this.personAt = new int[data.length];
+            this.seatOf = new int[nameList.size()];
+            this.seatPinned = new boolean[data.length];
+            this.disabled = new boolean[data.length];
+            Arrays.fill(personAt, -1);
+            Arrays.fill(seatOf, -1);
+            for (int seat : pinnedSeats) {
+                seatPinned[seat] = true;
+            }
+            for (int column : disabledLastRowIndexes) {
+                disabled[(rowCount - 1) * columnCount + column] = true;
+            }
+        }
+
+        private void put(int seat, int person) {
+            data[seat] = nameList.get(person);
+            personAt[seat] = person;
+            seatOf[person] = seat;
+        }
+
+        private void swap(int a, int b) {
+            if (logSize + 2 > log.length) {
+                log = Arrays.copyOf(log, log.length * 2);
+            }
+            log[logSize++] = a;
+            log[logSize++] = b;
+            exchange(a, b);
+            swaps++;
+        }
+
+        private void rollback(int mark) {
+            while (logSize > mark) {
+                int b = log[--logSize], a = log[--logSize];
+                exchange(a, b);
+            }
+        }
+
+        private void exchange(int a, int b) {
+            String s = data[a];
+            data[a] = data[b];
+            data[b] = s;
+            int p = personAt[a];
+            personAt[a] = personAt[b];
+            personAt[b] = p;
+            if (personAt[a] >= 0) {
+                seatOf[personAt[a]] = a;
+            }
+            if (personAt[b] >= 0) {
+                seatOf[personAt[b]] = b;
+            }
+        }
+
+        /**
+         * Finds the first seat accepted by {@code action}, going outwards from {@code seat} row by row with its own row
+         * first, so only the seats nearer than the one accepted are looked at.
+         *
+         * @return the seat accepted, or {@code -1} if none is
+         */
+        private int nearest(int seat, IntPredicate action) {
+            int row = seat / columnCount, column = seat % columnCount;
+            for (int rowDistance = 0; rowDistance < rowCount; rowDistance++) {
+                for (int rowSide = rowDistance == 0 ? 1 : -1; rowSide <= 1; rowSide += 2) {
+                    int r = row + rowSide * rowDistance;
+                    if (r < 0 || r >= rowCount) {
+                        continue;
+                    }
+                    for (int columnDistance = 0; columnDistance < columnCount; columnDistance++) {
+                        for (int columnSide = columnDistance == 0 ? 1 : -1; columnSide <= 1; columnSide += 2) {
+                            int c = column + columnSide * columnDistance;
+                            if (c >= 0 && c < columnCount && action.test(r * columnCount + c)) {
+                                return r * columnCount + c;
+                            }
+                        }
+                    }
+                }
+            }
+            return -1;
+        }
+
+        private int nearestEmpty(int seat) {
+            int empty = nearest(seat, other -> data[other] == null && !disabled[other] && !seatPinned[other]);
+            if (empty < 0) {
+                throw TranslatableException.seat("rearrange_failed", seed);
+            }
+            return empty;
+        }
+
+        private boolean near(int a, int b) {
+            return neighbourhoods.near(a, b);
+        }
+
+        private boolean chosen(int seat) {
+            return leaders.length > 0 && leaders[seat % columnCount] == seat / columnCount;
+        }
+
+        /**
+         * Whether the person in a seat may be swapped away, pinned people, chosen leaders and people sitting together
+         * stay.
+         */
+        private boolean movable(int seat) {
+            int person = personAt[seat];
+            return !seatPinned[seat] && !chosen(seat) && (person < 0 || partner[person] < 0);
+        }
+
+        private boolean apart(int seat) {
+            int person = personAt[seat];
+            if (person < 0) {
+                return true;
+            }
+            for (int other : separatedOf[person]) {
+                if (seatOf[other] >= 0 && near(seat, seatOf[other])) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * Swaps two seats if neither is held in place and both people stay apart from their separated partners,
+         * the person moved into a disabled seat is always nobody.
+         */
+        private boolean trySwap(int a, int b) {
+            if (a == b || !movable(a) || !movable(b) || disabled[a] && data[b] != null || disabled[b] && data[a] != null) {
+                return false;
+            }
+            swap(a, b);
+            if (apart(a) && apart(b)) {
+                return true;
+            }
+            swap(a, b);
+            return false;
+        }
+
+        /**
+         * Moves a person away from their separated partners, together with their partner if they have one.
+         */
+        private boolean moveAway(int person) {
+            if (partner[person] >= 0) {
+                return movePair(person, partner[person], -1);
+            }
+            int from = seatOf[person];
+            return nearest(from, to -> trySwap(from, to)) >= 0;
+        }
+
+        /**
+         * Whether a seat may be taken by one of a pair, moving whoever sits there to where the pair sat.
+         */
+        private boolean freeFor(int seat, int a, int b) {
+            int person = personAt[seat];
+            return !seatPinned[seat] && !disabled[seat] && !chosen(seat) && (person < 0 || person == a || person == b || partner[person] < 0);
+        }
+
+        /**
+         * Moves two people into the nearest two seats side by side, {@code a} stays where they are if they can.
+         *
+         * @param column the column {@code a} has to end up in, or {@code -1} for any
+         */
+        private boolean movePair(int a, int b, int column) {
+            int from = seatOf[a];
+            return nearest(from, left -> {
+                int right = left + 1;
+                if (right >= data.length || !besides(left, right) || !freeFor(left, a, b) || !freeFor(right, a, b)) {
+                    return false;
+                }
+                int seatA = column >= 0 ? (left % columnCount == column ? left : right) : (from == right ? right : left);
+                int seatB = seatA == left ? right : left;
+                if (column >= 0 && seatA % columnCount != column) {
+                    return false;
+                }
+                int fromB = seatOf[b];
+                swap(from, seatA);
+                int movedB = seatOf[b];
+                swap(movedB, seatB);
+                if (apart(from) && apart(fromB) && apart(movedB) && apart(seatA) && apart(seatB)) {
+                    return true;
+                }
+                swap(movedB, seatB);
+                swap(from, seatA);
+                return false;
+            }) >= 0;
+        }
+
+        /**
+         * Finds a leader for a column, moving a leader that is not needed in their own column into it if there is
+         * none, together with their partner if they have one.
+         * Failing that, takes the leader of another column and finds a new one for that column the same way.
+         *
+         * @param depth how many more leaders may be taken from their columns
+         */
+        private boolean findLeader(int column, int depth) {
+            for (int row = 0; row < rowCount; row++) {
+                int person = personAt[row * columnCount + column];
+                if (person >= 0 && isLeader[person]) {
+                    leaders[column] = row;
+                    return true;
+                }
+            }
+            return nearest(column, seat -> moveLeader(seat, column, false, depth)) >= 0
+                   || depth > 0 && nearest(column, seat -> moveLeader(seat, column, true, depth)) >= 0;
+        }
+
+        /**
+         * Moves the leader in a seat into a column, keeping them in their row if possible.
+         *
+         * @param take whether to move only leaders needed in their own column, which is then fixed again, instead of
+         *             only leaders that are not
+         */
+        private boolean moveLeader(int seat, int column, boolean take, int depth) {
+            int person = personAt[seat];
+            if (person < 0 || !isLeader[person] || seat % columnCount == column
+                || take == (spare(seat) && (partner[person] < 0 || spare(seatOf[partner[person]])))) {
+                return false;
+            }
+
+            int   mark   = logSize;
+            int[] chosen = leaders.clone();
+            if (take) {
+                if (chosen(seat)) {
+                    leaders[seat % columnCount] = -1;
+                }
+                if (partner[person] >= 0 && chosen(seatOf[partner[person]])) {
+                    leaders[seatOf[partner[person]] % columnCount] = -1;
+                }
+            }
+            // 同一行优先, 不改变前后顺序
+            boolean moved = partner[person] >= 0
+                    ? movePair(person, partner[person], column)
+                    : nearest(seat / columnCount * columnCount + column, other -> other % columnCount == column && trySwap(seat, other)) >= 0;
+            if (moved) {
+                leaders[column] = seatOf[person] / columnCount;
+                boolean fixed = true;
+                for (int c = 0; c < columnCount && fixed; c++) {
+                    if (leaders[c] < 0 && chosen[c] >= 0) {
+                        fixed = findLeader(c, depth - 1);
+                    }
+                }
+                if (fixed) {
+                    return true;
+                }
+            }
+            rollback(mark);
+            System.arraycopy(chosen, 0, leaders, 0, columnCount);
+            return false;
+        }
+
+        /**
+         * Whether the person in a seat can leave their column without leaving it without a leader.
+         */
+        private boolean spare(int seat) {
+            int person = personAt[seat];
+            return person < 0 || !isLeader[person] || !chosen(seat) && (leaders[seat % columnCount] >= 0 || hasOtherLeader(seat));
+        }
+
+        /**
+         * Whether the column of a leader has another leader to lead it.
+         */
+        private boolean hasOtherLeader(int seat) {
+            for (int row = 0; row < rowCount; row++) {
+                int other = row * columnCount + seat % columnCount, person = personAt[other];
+                if (other != seat && person >= 0 && isLeader[person]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+    }
+
+    /**
+     * Arrays reused across the attempts of one thread, people are identified by their index in the name list.
+     */
+    static final class Scratch {
+
+        private final int[] people;
+
+        private final int[] seatOf;
+
+        private final int[] personAt;
+
+        private final int[] pool;
+
+        private final int[] forcedAt;
+
+        private final boolean[] forced;
+
+        /**
+         * The lucky person of the attempt, {@code -1} if there is none.
+         */
+        private int lucky;
+
+        /**
+         * Seats of the pair that failed the last check.
+         */
+        private int violatedSeatA, violatedSeatB;
+
+        private Scratch(int peopleCount, int seatCount) {
+            this.people = new int[peopleCount];
+            this.seatOf = new int[peopleCount];
+            this.personAt = new int[seatCount];
+            this.pool = new int[peopleCount];
+            this.forcedAt = new int[peopleCount];
+            this.forced = new boolean[peopleCount];
+        }
 
-        return seatTable;
     }
 
 }
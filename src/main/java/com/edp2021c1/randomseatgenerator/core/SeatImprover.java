@@ -0,0 +1,263 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.edp2021c1.randomseatgenerator.util.Pair;
+import com.google.common.collect.ListMultimap;
+import com.google.common.primitives.Ints;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.random.RandomGenerator;
+import java.util.stream.IntStream;
+
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+
+/**
+ * Improves a generated seat table against {@link SoftConstraints} by swapping people within the blocks they were
+ * shuffled in, so the height order of the table is kept.
+ * <p>
+ * Every swap is scored by looking only at the two seats involved, their row neighbours and the partners of the two
+ * people, and is undone if it breaks a separated pair or makes the score worse.
+ * Seats of group leaders and people sitting together are never swapped.
+ */
+final class SeatImprover {
+
+    static final int DEFAULT_ITERATIONS = 20000;
+
+    private final int columnCount;
+
+    private final int[] frontWeight;
+
+    private final int[][] keepApart;
+
+    private final int keepApartWeight;
+
+    private final int[] group;
+
+    private final int rowMixWeight;
+
+    private final int[][] separated;
+
+    private final int[] partner;
+
+    private final SeparationMetric.Neighbourhoods neighbourhoods;
+
+    private final int maxIterations;
+
+    /**
+     * Time limit, 0 for none.
+     */
+    private final long maxNanos;
+
+    SeatImprover(SoftConstraints soft, int peopleCount, int columnCount, ListMultimap<String, Integer> ids, int[] separatedPairs, int[] partner, SeparationMetric.Neighbourhoods neighbourhoods) {
+        this.columnCount = columnCount;
+        this.neighbourhoods = neighbourhoods;
+
+        this.frontWeight = new int[peopleCount];
+        if (soft.frontPreferred != null) {
+            int weight = weight(soft.frontWeight);
+            Arrays.stream(soft.frontPreferred.split(" ")).forEach(name -> ids.get(name).forEach(i -> frontWeight[i] = weight));
+        }
+
+        List<int[]> apart = new ArrayList<>();
+        if (soft.keepApart != null) {
+            soft.keepApart.lines().forEach(l -> {
+                String[] split = l.split(" ", 2);
+                if (split.length >= 2 && !split[0].equals(split[1])) {
+                    ids.get(split[0]).forEach(a -> ids.get(split[1]).forEach(b -> apart.add(new int[]{a, b})));
+                }
+            });
+        }
+        this.keepApart = adjacency(peopleCount, apart.stream().flatMapToInt(IntStream::of).toArray());
+        this.keepApartWeight = weight(soft.keepApartWeight);
+
+        this.group = new int[peopleCount];
+        Arrays.fill(group, -1);
+        if (soft.rowMixGroups != null) {
+            List<String> groups = soft.rowMixGroups.lines().toList();
+            for (int g = 0; g < groups.size(); g++) {
+                for (String name : groups.get(g).split(" ")) {
+                    for (int i : ids.get(name)) {
+                        group[i] = g;
+                    }
+                }
+            }
+        }
+        this.rowMixWeight = weight(soft.rowMixWeight);
+
+        this.separated = adjacency(peopleCount, separatedPairs);
+        this.partner = partner;
+        this.maxIterations = soft.maxIterations > 0 ? soft.maxIterations : DEFAULT_ITERATIONS;
+        this.maxNanos = Math.max(soft.maxMillis, 0) * 1_000_000L;
+    }
+
+    private static int weight(int weight) {
+        return weight <= 0 ? 1 : weight;
+    }
+
+    private static int[][] adjacency(int peopleCount, int[] pairs) {
+        List<List<Integer>> lists = new ArrayList<>(peopleCount);
+        for (int i = 0; i < peopleCount; i++) {
+            lists.add(new ArrayList<>(0));
+        }
+        for (int i = 0; i < pairs.length; i += 2) {
+            lists.get(pairs[i]).add(pairs[i + 1]);
+            lists.get(pairs[i + 1]).add(pairs[i]);
+        }
+        return lists.stream().map(Ints::toArray).toArray(int[][]::new);
+    }
+
+    private boolean near(int a, int b) {
+        return neighbourhoods.near(a, b);
+    }
+
+    private boolean sameGroup(int person, int[] personAt, int seat) {
+        int other = personAt[seat];
+        return other >= 0 && group[other] >= 0 && group[other] == group[person];
+    }
+
+    /**
+     * Cost of the terms involving the person at {@code seat}.
+     */
+    private long local(int seat, int[] personAt, int[] seatOf) {
+        int  person = personAt[seat];
+        long cost   = (long) frontWeight[person] * (seat / columnCount);
+        for (int other : keepApart[person]) {
+            if (seatOf[other] >= 0 && near(seat, seatOf[other])) {
+                cost += keepApartWeight;
+            }
+        }
+        if (group[person] >= 0) {
+            int column = seat % columnCount;
+            if (column > 0 && sameGroup(person, personAt, seat - 1)) {
+                cost += rowMixWeight;
+            }
+            if (column < columnCount - 1 && sameGroup(person, personAt, seat + 1)) {
+                cost += rowMixWeight;
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Total cost of the table, terms between two people are counted once.
+     */
+    long score(int[] personAt, int[] seatOf) {
+        long score = 0;
+        for (int seat = 0; seat < personAt.length; seat++) {
+            int person = personAt[seat];
+            if (person < 0) {
+                continue;
+            }
+            score += (long) frontWeight[person] * (seat / columnCount);
+            for (int other : keepApart[person]) {
+                if (other > person && seatOf[other] >= 0 && near(seat, seatOf[other])) {
+                    score += keepApartWeight;
+                }
+            }
+            if (group[person] >= 0 && seat % columnCount < columnCount - 1 && sameGroup(person, personAt, seat + 1)) {
+                score += rowMixWeight;
+            }
+        }
+        return score;
+    }
+
+    private boolean separatedApart(int person, int[] seatOf) {
+        for (int other : separated[person]) {
+            if (seatOf[other] >= 0 && near(seatOf[person], seatOf[other])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void swap(String[] data, int[] personAt, int[] seatOf, int a, int b) {
+        String s = data[a];
+        data[a] = data[b];
+        data[b] = s;
+        int p = personAt[a];
+        personAt[a] = personAt[b];
+        personAt[b] = p;
+        seatOf[personAt[a]] = a;
+        seatOf[personAt[b]] = b;
+    }
+
+    /**
+     * Runs the local search on a table that has just passed {@link SeatGenerator#attempt}.
+     *
+     * @param people the shuffled people of the attempt, {@code ranges} index into it
+     */
+    void improve(SeatTable seatTable, int[] people, int[] personAt, int[] seatOf, List<Pair<Integer, Integer>> ranges, RandomGenerator random) {
+        long start = System.nanoTime();
+
+        // 各个随机块中可以交换的座位, 组长和坐在一起的两人不动
+        int[] leaderSeats = new int[seatTable.getLeaders().length];
+        for (int c = 0; c < leaderSeats.length; c++) {
+            leaderSeats[c] = seatTable.getLeaders()[c] * columnCount + c;
+        }
+        List<int[]> blocks = new ArrayList<>();
+        for (Pair<Integer, Integer> range : ranges) {
+            int[] seats = IntStream.range(range.first, range.second)
+                    .filter(k -> partner[people[k]] < 0)
+                    .map(k -> seatOf[people[k]])
+                    .filter(seat -> !Ints.contains(leaderSeats, seat))
+                    .toArray();
+            if (seats.length > 1) {
+                blocks.add(seats);
+            }
+        }
+        if (blocks.isEmpty()) {
+            return;
+        }
+
+        String[] data       = seatTable.getData();
+        long     score      = score(personAt, seatOf);
+        long     initial    = score;
+        int      iterations = 0;
+        while (score > 0 && iterations < maxIterations && (maxNanos == 0 || (iterations & 1023) != 0 || System.nanoTime() - start < maxNanos)) {
+            iterations++;
+            int[] block = blocks.get(random.nextInt(blocks.size()));
+            int   a     = block[random.nextInt(block.length)];
+            int   b     = block[random.nextInt(block.length - 1)];
+            if (b == a) {
+                b = block[block.length - 1];
+            }
+
+            long before = local(a, personAt, seatOf) + local(b, personAt, seatOf);
+            swap(data, personAt, seatOf, a, b);
+            if (!separatedApart(personAt[a], seatOf) || !separatedApart(personAt[b], seatOf)) {
+                swap(data, personAt, seatOf, a, b);
+                continue;
+            }
+            long delta = local(a, personAt, seatOf) + local(b, personAt, seatOf) - before;
+            if (delta > 0) {
+                swap(data, personAt, seatOf, a, b);
+            } else {
+                score += delta;
+            }
+        }
+
+        LOGGER.debug("Soft constraint score {} -> {} after {} swaps in {} ms", initial, score, iterations, (System.nanoTime() - start) / 1_000_000);
+    }
+
+}
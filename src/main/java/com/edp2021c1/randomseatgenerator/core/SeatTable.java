@@ -22,11 +22,15 @@ package com.edp2021c1.randomseatgenerator.core;
 
 import com.edp2021c1.randomseatgenerator.util.Table;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import lombok.Getter;
 import lombok.Setter;
 import org.jetbrains.annotations.Contract;
 import org.jspecify.annotations.Nullable;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Set;
 
 public class SeatTable extends Table<String> {
@@ -35,6 +39,18 @@ public class SeatTable extends Table<String> {
     @Nullable
     private final String seed;
 
+    @Getter
+    @Nullable
+    private final String algorithm;
+
+    /**
+     * Fingerprint of the config the table was generated with, see {@link SeatConfig#fingerprint()}.
+     */
+    @Getter
+    @Setter
+    @Nullable
+    private String configFingerprint;
+
     @Getter
     private final int[] leaders;
 
@@ -44,15 +60,16 @@ public class SeatTable extends Table<String> {
     private String luckyPerson;
 
     public SeatTable(int rowCount, int columnCount, boolean hasLeaders) throws IllegalArgumentException {
-        this(rowCount, columnCount, hasLeaders, null);
+        this(rowCount, columnCount, hasLeaders, null, null);
     }
 
-    public SeatTable(int rowCount, int columnCount, boolean hasLeaders, @Nullable String seed) throws IllegalArgumentException {
+    public SeatTable(int rowCount, int columnCount, boolean hasLeaders, @Nullable String seed, @Nullable String algorithm) throws IllegalArgumentException {
         super(rowCount, columnCount, new String[0]);
         if (rowCount == 0 || columnCount == 0) {
             throw new IllegalArgumentException();
         }
         this.seed = seed;
+        this.algorithm = algorithm;
         this.luckyPerson = null;
         this.leaders = hasLeaders ? new int[columnCount] : new int[0];
     }
@@ -94,32 +111,63 @@ public class SeatTable extends Table<String> {
         }
     }
 
+    /**
+     * A 64-bit hash of the seats, leaders and lucky person. Tables with the same layout share it whatever their seeds are.
+     */
     @Contract(pure = true)
-    @Override
-    public String toString() {
-        StringBuilder s = new StringBuilder();
+    public long fingerprint() {
+        Hasher hasher = Hashing.farmHashFingerprint64().newHasher().putInt(rowCount).putInt(columnCount);
+        for (String s : data) {
+            hasher.putInt(s == null ? -1 : s.length()).putUnencodedChars(s == null ? "" : s);
+        }
+        hasher.putInt(leaders.length);
+        for (int leader : leaders) {
+            hasher.putInt(leader);
+        }
+        hasher.putInt(luckyPerson == null ? -1 : luckyPerson.length()).putUnencodedChars(luckyPerson == null ? "" : luckyPerson);
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * Writes the table as {@link #toString()} does, a row at a time, so that large tables are never held as one string.
+     *
+     * @param brackets whether rows are put in brackets, csv exports leave them out
+     */
+    public void appendTo(Appendable out, boolean brackets) throws IOException {
         for (int i = 0; i < rowCount; i++) {
-            s.append("[");
+            if (brackets) {
+                out.append("[");
+            }
 
-            for (int j = 0; j < columnCount - 1; j++) {
+            for (int j = 0; j < columnCount; j++) {
+                if (j > 0) {
+                    out.append(", ");
+                }
                 if (hasLeaders() && leaders[j] == i) {
-                    s.append("{").append(get(i, j)).append("}");
+                    out.append("{").append(get(i, j)).append("}");
                 } else {
-                    s.append(get(i, j));
+                    out.append(get(i, j));
                 }
-                s.append(", ");
             }
 
-            if (hasLeaders() && leaders[columnCount - 1] == i) {
-                s.append("{").append(get(i, columnCount - 1)).append("}");
-            } else {
-                s.append(get(i, columnCount - 1));
+            if (brackets) {
+                out.append("]");
             }
-
-            s.append("]").append(System.lineSeparator());
+            out.append(System.lineSeparator());
         }
         if (luckyPerson != null) {
-            s.append(luckyPerson);
+            out.append(luckyPerson);
+        }
+    }
+
+    @Contract(pure = true)
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        try {
+            appendTo(s, true);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
         return s.toString();
     }
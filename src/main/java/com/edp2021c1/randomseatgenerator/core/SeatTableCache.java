@@ -0,0 +1,196 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.jspecify.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+
+/**
+ * Remembers generated seat tables by config fingerprint, seed and algorithm, as generation is deterministic for them.
+ * <p>
+ * Tables are kept in a bounded in-memory cache as {@link CompactSeatTable}s sharing the generator's {@link Roster}, and
+ * optionally written to a directory so that later runs can reuse them. Each lookup returns a table of its own.
+ */
+public final class SeatTableCache {
+
+    public static final int DEFAULT_SIZE = 256;
+
+    private static final int DISK_FORMAT = 1;
+
+    private final Cache<Key, CompactSeatTable> memory;
+
+    @Nullable
+    private final Path directory;
+
+    private final LongAdder diskHits = new LongAdder();
+
+    private final LongAdder diskWrites = new LongAdder();
+
+    /**
+     * @param directory where tables are stored on disk, or {@code null} to keep them in memory only
+     */
+    public SeatTableCache(int maximumSize, @Nullable Path directory) {
+        this.memory = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+        this.directory = directory;
+    }
+
+    public SeatTable generate(SeatGenerator generator, String seed) {
+        Key key = new Key(generator.getConfigFingerprint(), seed, generator.getAlgorithm().id);
+        try {
+            return memory.get(key, () -> {
+                CompactSeatTable table = readFromDisk(key, generator.getRoster());
+                if (table != null) {
+                    diskHits.increment();
+                    return table;
+                }
+                SeatTable generated = generator.generate(seed);
+                writeToDisk(key, generated);
+                return CompactSeatTable.of(generated, generator.getRoster());
+            }).toSeatTable();
+        } catch (ExecutionException | UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException r) {
+                throw r;
+            }
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private Path fileOf(Key key) {
+        String name = Hashing.farmHashFingerprint64().newHasher()
+                .putUnencodedChars(key.configFingerprint).putChar('\0')
+                .putUnencodedChars(key.seed).putChar('\0')
+                .putUnencodedChars(key.algorithm)
+                .hash().toString();
+        return directory.resolve(name + ".table");
+    }
+
+    /**
+     * @return the table, or {@code null} if it is not on disk or names someone not in the roster
+     */
+    @Nullable
+    private CompactSeatTable readFromDisk(Key key, Roster roster) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = fileOf(key);
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != DISK_FORMAT
+                    || !in.readUTF().equals(key.configFingerprint)
+                    || !in.readUTF().equals(key.seed)
+                    || !in.readUTF().equals(key.algorithm)) {
+                return null;
+            }
+            int       rows    = in.readInt(), columns = in.readInt();
+            int[]     leaders = new int[in.readInt()];
+            SeatTable table   = new SeatTable(rows, columns, leaders.length > 0, key.seed, key.algorithm);
+            table.setConfigFingerprint(key.configFingerprint);
+            for (int i = 0; i < leaders.length; i++) {
+                table.getLeaders()[i] = in.readInt();
+            }
+            if (in.readBoolean()) {
+                table.setLuckyPerson(in.readUTF());
+            }
+            String[] data = table.getData();
+            for (int i = 0; i < data.length; i++) {
+                data[i] = in.readUTF();
+            }
+            return CompactSeatTable.of(table, roster);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Failed to read cached seat table {}", file, e);
+            return null;
+        }
+    }
+
+    private void writeToDisk(Key key, SeatTable table) {
+        if (directory == null) {
+            return;
+        }
+        Path file = fileOf(key);
+        try {
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, null, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(DISK_FORMAT);
+                out.writeUTF(key.configFingerprint);
+                out.writeUTF(key.seed);
+                out.writeUTF(key.algorithm);
+                out.writeInt(table.getRowCount());
+                out.writeInt(table.getColumnCount());
+                out.writeInt(table.getLeaders().length);
+                for (int leader : table.getLeaders()) {
+                    out.writeInt(leader);
+                }
+                out.writeBoolean(table.hasLuckyPerson());
+                if (table.hasLuckyPerson()) {
+                    out.writeUTF(table.getLuckyPerson());
+                }
+                for (String s : table.getData()) {
+                    out.writeUTF(s);
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            diskWrites.increment();
+        } catch (IOException e) {
+            LOGGER.warn("Failed to cache seat table to {}", file, e);
+        }
+    }
+
+    public void invalidateAll() {
+        memory.invalidateAll();
+    }
+
+    public Stats stats() {
+        CacheStats s = memory.stats();
+        return new Stats(s.hitCount(), s.missCount(), diskHits.sum(), diskWrites.sum(), memory.size());
+    }
+
+    private record Key(String configFingerprint, String seed, String algorithm) {
+    }
+
+    /**
+     * @param misses lookups not found in memory, including those found on disk
+     */
+    public record Stats(long hits, long misses, long diskHits, long diskWrites, long size) {
+
+        @Override
+        public String toString() {
+            return "hits=%d misses=%d diskHits=%d diskWrites=%d size=%d".formatted(hits, misses, diskHits, diskWrites, size);
+        }
+
+    }
+
+}
@@ -0,0 +1,199 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.google.common.collect.Maps;
+import org.jetbrains.annotations.Contract;
+import org.jspecify.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Differences between two seat tables, usually of the same config with different seeds.
+ *
+ * @param moved             people whose seat changed, including people only seated in one of the tables
+ * @param neighboursChanged people seated in both tables whose front, back, left or right neighbours changed
+ * @param leaderChanges     columns whose leader changed
+ */
+public record SeatTableDiff(List<Move> moved, List<String> neighboursChanged, List<LeaderChange> leaderChanges) {
+
+    private static final int NOT_SEATED = -1;
+
+    @Contract(pure = true)
+    public static SeatTableDiff between(SeatTable before, SeatTable after) {
+        Map<String, List<Integer>> ids      = Maps.newHashMapWithExpectedSize(before.size());
+        List<String>               names    = new ArrayList<>(before.size());
+        int[]                      idBefore = index(before, ids, names);
+        int[]                      idAfter  = index(after, ids, names);
+
+        int[] seatBefore = seats(idBefore, names.size());
+        int[] seatAfter  = seats(idAfter, names.size());
+
+        List<Move>   moved             = new ArrayList<>();
+        List<String> neighboursChanged = new ArrayList<>();
+        for (int id = 0; id < names.size(); id++) {
+            int b = seatBefore[id], a = seatAfter[id];
+            Move move = new Move(names.get(id), row(before, b), column(before, b), row(after, a), column(after, a));
+            if (move.fromRow != move.toRow || move.fromColumn != move.toColumn) {
+                moved.add(move);
+            }
+            if (b != NOT_SEATED && a != NOT_SEATED && !Arrays.equals(neighbours(before, idBefore, b), neighbours(after, idAfter, a))) {
+                neighboursChanged.add(names.get(id));
+            }
+        }
+
+        List<LeaderChange> leaderChanges = new ArrayList<>();
+        int[]              leadersBefore = before.getLeaders(), leadersAfter = after.getLeaders();
+        for (int c = 0; c < Math.max(leadersBefore.length, leadersAfter.length); c++) {
+            // 导入的座位表中可能有某列没有组长, 行号为 -1
+            String l1 = c < leadersBefore.length && leadersBefore[c] >= 0 ? before.get(leadersBefore[c], c) : null;
+            String l2 = c < leadersAfter.length && leadersAfter[c] >= 0 ? after.get(leadersAfter[c], c) : null;
+            if (!Objects.equals(l1, l2)) {
+                leaderChanges.add(new LeaderChange(c, l1, l2));
+            }
+        }
+
+        return new SeatTableDiff(List.copyOf(moved), List.copyOf(neighboursChanged), List.copyOf(leaderChanges));
+    }
+
+    private static boolean isPerson(@Nullable String s) {
+        return s != null && !s.equals("-");
+    }
+
+    /**
+     * Ids of the people in each seat. People sharing a name are told apart by the order they appear in, the first one
+     * with a name in one table is taken to be the first one with it in the other.
+     */
+    private static int[] index(SeatTable table, Map<String, List<Integer>> ids, List<String> names) {
+        String[]             data = table.getData();
+        int[]                id   = new int[data.length];
+        Map<String, Integer> seen = new HashMap<>();
+        for (int i = 0; i < data.length; i++) {
+            if (!isPerson(data[i])) {
+                id[i] = NOT_SEATED;
+                continue;
+            }
+            List<Integer> same = ids.computeIfAbsent(data[i], k -> new ArrayList<>(1));
+            int           n    = seen.merge(data[i], 1, Integer::sum) - 1;
+            if (n == same.size()) {
+                names.add(data[i]);
+                same.add(names.size() - 1);
+            }
+            id[i] = same.get(n);
+        }
+        return id;
+    }
+
+    private static int[] seats(int[] ids, int peopleCount) {
+        int[] seats = new int[peopleCount];
+        Arrays.fill(seats, NOT_SEATED);
+        for (int i = 0; i < ids.length; i++) {
+            if (ids[i] != NOT_SEATED) {
+                seats[ids[i]] = i;
+            }
+        }
+        return seats;
+    }
+
+    /**
+     * Ids of the people around a seat, sorted so that the order they sit in does not matter.
+     */
+    private static int[] neighbours(SeatTable table, int[] ids, int seat) {
+        int   columnCount = table.getColumnCount();
+        int   row         = seat / columnCount, column = seat % columnCount;
+        int[] n           = new int[4];
+        int   k           = 0;
+        if (row > 0 && ids[seat - columnCount] != NOT_SEATED) {
+            n[k++] = ids[seat - columnCount];
+        }
+        if (row < table.getRowCount() - 1 && ids[seat + columnCount] != NOT_SEATED) {
+            n[k++] = ids[seat + columnCount];
+        }
+        if (column > 0 && ids[seat - 1] != NOT_SEATED) {
+            n[k++] = ids[seat - 1];
+        }
+        if (column < columnCount - 1 && ids[seat + 1] != NOT_SEATED) {
+            n[k++] = ids[seat + 1];
+        }
+        n = Arrays.copyOf(n, k);
+        Arrays.sort(n);
+        return n;
+    }
+
+    private static int row(SeatTable table, int seat) {
+        return seat == NOT_SEATED ? NOT_SEATED : seat / table.getColumnCount();
+    }
+
+    private static int column(SeatTable table, int seat) {
+        return seat == NOT_SEATED ? NOT_SEATED : seat % table.getColumnCount();
+    }
+
+    @Contract(pure = true)
+    public boolean isEmpty() {
+        return moved.isEmpty() && neighboursChanged.isEmpty() && leaderChanges.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append("Moved: ").append(moved.size()).append(System.lineSeparator());
+        for (Move move : moved) {
+            s.append("  ").append(move).append(System.lineSeparator());
+        }
+        s.append("Neighbours changed: ").append(neighboursChanged.size()).append(' ').append(neighboursChanged).append(System.lineSeparator());
+        s.append("Leaders changed: ").append(leaderChanges.size()).append(System.lineSeparator());
+        for (LeaderChange change : leaderChanges) {
+            s.append("  ").append(change).append(System.lineSeparator());
+        }
+        return s.toString();
+    }
+
+    /**
+     * Rows and columns start from 0, and are -1 where the person is not seated.
+     */
+    public record Move(String name, int fromRow, int fromColumn, int toRow, int toColumn) {
+
+        private static String position(int row, int column) {
+            return row == NOT_SEATED ? "-" : "(%d, %d)".formatted(row + 1, column + 1);
+        }
+
+        @Override
+        public String toString() {
+            return "%s %s -> %s".formatted(name, position(fromRow, fromColumn), position(toRow, toColumn));
+        }
+
+    }
+
+    public record LeaderChange(int column, @Nullable String before, @Nullable String after) {
+
+        @Override
+        public String toString() {
+            return "column %d: %s -> %s".formatted(column + 1, before, after);
+        }
+
+    }
+
+}
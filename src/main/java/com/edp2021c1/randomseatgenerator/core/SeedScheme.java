@@ -0,0 +1,117 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.edp2021c1.randomseatgenerator.util.Strings;
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import org.jetbrains.annotations.Nullable;
+
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.IsoFields;
+
+/**
+ * How a seed is picked when none is given.
+ * <p>
+ * All schemes are safe to use from several threads at once. To generate many tables from one seed, use
+ * {@link #derive(String, int)}, which gives the same sequence every time.
+ */
+public enum SeedScheme {
+
+    /**
+     * Letters and digits from a {@link SecureRandom}, different every time.
+     */
+    SECURE("secure") {
+        @Override
+        public String create(Clock clock, @Nullable String classId) {
+            return Strings.randomString(RANDOM_LENGTH, SECURE_RANDOM.get());
+        }
+    },
+    /**
+     * The current time to the millisecond, e.g. {@code 2024-09-01 08:00:00.000}.
+     */
+    TIMESTAMP("timestamp") {
+        @Override
+        public String create(Clock clock, @Nullable String classId) {
+            return LocalDateTime.now(clock).format(TIMESTAMP_FORMAT);
+        }
+    },
+    /**
+     * The class id and the ISO week, e.g. {@code 7-2024-W36}, so a class gets the same table for a whole week.
+     */
+    WEEK("week") {
+        @Override
+        public String create(Clock clock, @Nullable String classId) {
+            LocalDate date = LocalDate.now(clock);
+            String    week = "%d-W%02d".formatted(date.get(IsoFields.WEEK_BASED_YEAR), date.get(IsoFields.WEEK_OF_WEEK_BASED_YEAR));
+            return classId == null || classId.isBlank() ? week : classId + "-" + week;
+        }
+    };
+
+    public static final SeedScheme DEFAULT = SECURE;
+
+    private static final int RANDOM_LENGTH = 30;
+
+    // 每个线程一个, 避免批量生成时争用同一个锁
+    private static final ThreadLocal<SecureRandom> SECURE_RANDOM = ThreadLocal.withInitial(SecureRandom::new);
+
+    private static final DateTimeFormatter TIMESTAMP_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
+
+    public static SeedScheme getById(@Nullable String id) {
+        if (id == null || id.isBlank()) {
+            return DEFAULT;
+        }
+        for (SeedScheme scheme : values()) {
+            if (scheme.id.equals(id)) {
+                return scheme;
+            }
+        }
+        throw TranslatableException.seat("unknown_seed_scheme", id);
+    }
+
+    /**
+     * The {@code index}-th seed of a batch started from {@code base}.
+     */
+    public static String derive(String base, int index) {
+        return base + "-" + index;
+    }
+
+    public final String id;
+
+    SeedScheme(String id) {
+        this.id = id;
+    }
+
+    public abstract String create(Clock clock, @Nullable String classId);
+
+    public String create(@Nullable String classId) {
+        return create(Clock.systemDefaultZone(), classId);
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * How the distance between two seats is measured when keeping separated pairs apart.
+ */
+public enum SeparationMetric {
+
+    /**
+     * Rows plus columns apart, distance 1 only covers the four seats next to each other.
+     */
+    MANHATTAN("manhattan") {
+        @Override
+        public int distance(int rows, int columns) {
+            return Math.abs(rows) + Math.abs(columns);
+        }
+    },
+    /**
+     * The larger one of rows and columns apart, distance 1 also covers the diagonal seats.
+     */
+    CHEBYSHEV("chebyshev") {
+        @Override
+        public int distance(int rows, int columns) {
+            return Math.max(Math.abs(rows), Math.abs(columns));
+        }
+    };
+
+    public static final SeparationMetric DEFAULT = MANHATTAN;
+
+    public static SeparationMetric getById(@Nullable String id) {
+        if (id == null || id.isBlank()) {
+            return DEFAULT;
+        }
+        for (SeparationMetric metric : values()) {
+            if (metric.id.equals(id)) {
+                return metric;
+            }
+        }
+        throw TranslatableException.seat("unknown_metric", id);
+    }
+
+    public final String id;
+
+    SeparationMetric(String id) {
+        this.id = id;
+    }
+
+    @Contract(pure = true)
+    public abstract int distance(int rows, int columns);
+
+    /**
+     * The seats within {@code distance} of each seat of a {@code rowCount * columnCount} table.
+     */
+    @Contract(pure = true)
+    public Neighbourhoods neighbourhoods(int rowCount, int columnCount, int distance) {
+        return new Neighbourhoods(this, rowCount, columnCount, distance);
+    }
+
+    @Override
+    public String toString() {
+        return id;
+    }
+
+    /**
+     * Answers whether two seats are too close, from a bitboard for every seat marking the other seats within the
+     * distance of it. The boards grow with the square of the seat count, so larger tables compare rows and columns
+     * instead.
+     */
+    public static final class Neighbourhoods {
+
+        /**
+         * Longs the boards may take, 8 MiB or about 8000 seats.
+         */
+        private static final long MAX_BOARD_WORDS = 1 << 20;
+
+        private final SeparationMetric metric;
+
+        private final int columnCount;
+
+        private final int distance;
+
+        /**
+         * The board of seat {@code i} takes {@link #words} longs starting at {@code i * words},
+         * {@code null} for tables too large for them.
+         */
+        @Nullable
+        private final long[] boards;
+
+        private final int words;
+
+        private Neighbourhoods(SeparationMetric metric, int rowCount, int columnCount, int distance) {
+            this.metric = metric;
+            this.columnCount = columnCount;
+            this.distance = distance;
+
+            long size = (long) rowCount * columnCount;
+            this.words = (int) ((size + 63) >>> 6);
+            if (size > 0 && words > MAX_BOARD_WORDS / size) {
+                this.boards = null;
+                return;
+            }
+            this.boards = new long[(int) size * words];
+            for (int i = 0; i < size; i++) {
+                int r = i / columnCount, c = i % columnCount;
+                for (int r2 = Math.max(0, r - distance); r2 <= Math.min(rowCount - 1, r + distance); r2++) {
+                    for (int c2 = Math.max(0, c - distance); c2 <= Math.min(columnCount - 1, c + distance); c2++) {
+                        int j = r2 * columnCount + c2;
+                        if (j != i && metric.distance(r2 - r, c2 - c) <= distance) {
+                            boards[i * words + (j >>> 6)] |= 1L << j;
+                        }
+                    }
+                }
+            }
+        }
+
+        @Contract(pure = true)
+        public boolean near(int a, int b) {
+            if (boards != null) {
+                return (boards[a * words + (b >>> 6)] & (1L << b)) != 0;
+            }
+            return a != b && metric.distance(a / columnCount - b / columnCount, a % columnCount - b % columnCount) <= distance;
+        }
+
+    }
+
+}
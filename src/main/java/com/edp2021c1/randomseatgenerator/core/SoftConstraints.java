@@ -0,0 +1,94 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.google.common.hash.Hasher;
+import com.google.gson.annotations.SerializedName;
+import lombok.EqualsAndHashCode;
+
+/**
+ * Preferences that are met as far as possible after a valid seat table is generated.
+ * Weights of 0 are treated as 1.
+ */
+@EqualsAndHashCode
+public class SoftConstraints {
+
+    /**
+     * Names that should sit as close to the front as their block allows, e.g. short-sighted people.
+     */
+    @SerializedName("frontPreferred")
+    public String frontPreferred;
+
+    @SerializedName("frontWeight")
+    public int frontWeight;
+
+    /**
+     * Lines of two names that had better not sit near each other, using the separation distance of the config.
+     */
+    @SerializedName("keepApart")
+    public String keepApart;
+
+    @SerializedName("keepApartWeight")
+    public int keepApartWeight;
+
+    /**
+     * Lines of names of one group, people of the same group had better not sit next to each other in a row.
+     */
+    @SerializedName("rowMixGroups")
+    public String rowMixGroups;
+
+    @SerializedName("rowMixWeight")
+    public int rowMixWeight;
+
+    /**
+     * Swaps tried at most, 0 for {@value SeatImprover#DEFAULT_ITERATIONS}.
+     */
+    @SerializedName("maxIterations")
+    public int maxIterations;
+
+    /**
+     * Time spent improving at most, 0 for no limit.
+     * With a limit, how far the search gets depends on the machine, so the same seed may no longer give the same table.
+     */
+    @SerializedName("maxMillis")
+    public int maxMillis;
+
+    void putInto(Hasher hasher) {
+        hasher.putInt(frontWeight).putInt(keepApartWeight).putInt(rowMixWeight).putInt(maxIterations).putInt(maxMillis);
+        for (String s : new String[]{frontPreferred, keepApart, rowMixGroups}) {
+            hasher.putInt(s == null ? -1 : s.length()).putUnencodedChars(s == null ? "" : s);
+        }
+    }
+
+    public SoftConstraints copy() {
+        SoftConstraints softConstraints = new SoftConstraints();
+        softConstraints.frontPreferred = frontPreferred;
+        softConstraints.frontWeight = frontWeight;
+        softConstraints.keepApart = keepApart;
+        softConstraints.keepApartWeight = keepApartWeight;
+        softConstraints.rowMixGroups = rowMixGroups;
+        softConstraints.rowMixWeight = rowMixWeight;
+        softConstraints.maxIterations = maxIterations;
+        softConstraints.maxMillis = maxMillis;
+        return softConstraints;
+    }
+
+}
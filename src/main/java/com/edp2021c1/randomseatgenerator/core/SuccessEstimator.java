@@ -0,0 +1,217 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.core;
+
+import com.edp2021c1.randomseatgenerator.util.Pair;
+import com.edp2021c1.randomseatgenerator.util.i18n.I18N;
+import com.edp2021c1.randomseatgenerator.util.i18n.TranslatableNotice;
+
+import java.io.Serial;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+
+/**
+ * Estimates how likely a single attempt of {@link SeatGenerator} is to succeed, by running many independent attempts
+ * in parallel over split random streams.
+ */
+public final class SuccessEstimator {
+
+    public static final int DEFAULT_TRIALS = 10000;
+
+    private static final int ATTEMPTS_PER_TASK = 256;
+
+    /**
+     * z-score of the 95% confidence interval.
+     */
+    private static final double Z = 1.959964;
+
+    /**
+     * Runs {@code trials} attempts, the result only depends on the config, {@code trials} and {@code seed}.
+     */
+    public static Estimate estimate(SeatConfig config, int trials, long seed) {
+        SeatGenerator                generator = new SeatGenerator(config);
+        List<Pair<Integer, Integer>> ranges    = generator.prepare();
+        long                         start     = System.nanoTime();
+        Tally                        tally     = ForkJoinPool.commonPool().invoke(new Task(generator, ranges, new SplittableRandom(seed), trials));
+
+        Map<AttemptResult, Integer> failures = new EnumMap<>(AttemptResult.class);
+        for (AttemptResult result : AttemptResult.values()) {
+            if (result != AttemptResult.SUCCESS && tally.counts[result.ordinal()] > 0) {
+                failures.put(result, tally.counts[result.ordinal()]);
+            }
+        }
+        return new Estimate(trials, tally.counts[AttemptResult.SUCCESS.ordinal()], failures, System.nanoTime() - start, tally.nanos);
+    }
+
+    public static Estimate estimate(SeatConfig config) {
+        return estimate(config, DEFAULT_TRIALS, System.nanoTime());
+    }
+
+    private static final class Tally {
+
+        private final int[] counts = new int[AttemptResult.values().length];
+
+        private long nanos;
+
+        private Tally merge(Tally other) {
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] += other.counts[i];
+            }
+            nanos += other.nanos;
+            return this;
+        }
+
+    }
+
+    private static final class Task extends RecursiveTask<Tally> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        // 任务不会被序列化
+        private final transient SeatGenerator generator;
+
+        private final transient List<Pair<Integer, Integer>> ranges;
+
+        private final transient SplittableRandom random;
+
+        private final int trials;
+
+        private Task(SeatGenerator generator, List<Pair<Integer, Integer>> ranges, SplittableRandom random, int trials) {
+            this.generator = generator;
+            this.ranges = ranges;
+            this.random = random;
+            this.trials = trials;
+        }
+
+        @Override
+        protected Tally compute() {
+            if (trials > ATTEMPTS_PER_TASK) {
+                int  half = trials / 2;
+                Task left = new Task(generator, ranges, random.split(), half);
+                left.fork();
+                return new Task(generator, ranges, random, trials - half).compute().merge(left.join());
+            }
+
+            Tally                 tally     = new Tally();
+            SeatTable             seatTable = generator.newSeatTable(null);
+            SeatGenerator.Scratch scratch   = generator.newScratch();
+            long                  start     = System.nanoTime();
+            for (int i = 0; i < trials; i++) {
+                tally.counts[generator.attempt(seatTable, scratch, ranges, random).ordinal()]++;
+            }
+            tally.nanos = System.nanoTime() - start;
+            return tally;
+        }
+
+    }
+
+    /**
+     * @param wallNanos    time the whole estimation took
+     * @param attemptNanos time spent in attempts summed over all threads
+     */
+    public record Estimate(int trials, int successes, Map<AttemptResult, Integer> failures, long wallNanos, long attemptNanos) {
+
+        public double probability() {
+            return (double) successes / trials;
+        }
+
+        /**
+         * Lower bound of the Wilson score interval.
+         */
+        public double lowerBound() {
+            return center() - margin();
+        }
+
+        /**
+         * Upper bound of the Wilson score interval.
+         */
+        public double upperBound() {
+            return center() + margin();
+        }
+
+        private double center() {
+            return (probability() + Z * Z / (2.0 * trials)) / (1 + Z * Z / trials);
+        }
+
+        private double margin() {
+            double p = probability();
+            return Z / (1 + Z * Z / trials) * Math.sqrt(p * (1 - p) / trials + Z * Z / (4.0 * trials * trials));
+        }
+
+        public double nanosPerAttempt() {
+            return (double) attemptNanos / trials;
+        }
+
+        /**
+         * Expected number of attempts per table, infinite if no attempt succeeded.
+         */
+        public double expectedAttempts() {
+            return successes == 0 ? Double.POSITIVE_INFINITY : 1 / probability();
+        }
+
+        public double expectedNanos() {
+            return expectedAttempts() * nanosPerAttempt();
+        }
+
+        /**
+         * Probability that {@link SeatGenerator#generate(String)} gives up after {@link SeatGenerator#MAX_GENERATIONS}
+         * attempts, assuming the upper bound of the success rate.
+         */
+        public double exhaustionProbability() {
+            return Math.pow(1 - upperBound(), SeatGenerator.MAX_GENERATIONS);
+        }
+
+        public TranslatableNotice notice() {
+            String causes = failures.isEmpty() ? I18N.constant("none") : failures.entrySet().stream()
+                    .sorted(Map.Entry.<AttemptResult, Integer>comparingByValue().reversed())
+                    .map(e -> "%s %.1f%%".formatted(I18N.constant(e.getKey().key), 100.0 * e.getValue() / trials))
+                    .collect(Collectors.joining(", "));
+            return TranslatableNotice.of(
+                    "estimate",
+                    "%.2f%%".formatted(100 * probability()),
+                    "%.2f%%".formatted(100 * lowerBound()),
+                    "%.2f%%".formatted(100 * upperBound()),
+                    trials,
+                    "%.1f".formatted(expectedAttempts()),
+                    "%.2f".formatted(expectedNanos() / 1e6),
+                    causes
+            );
+        }
+
+        /**
+         * The failure cause seen most often, or {@code null} if every attempt succeeded.
+         */
+        public AttemptResult dominantFailure() {
+            return failures.entrySet().stream().max(Map.Entry.comparingByValue()).map(Map.Entry::getKey).orElse(null);
+        }
+
+    }
+
+    private SuccessEstimator() {
+    }
+
+}
@@ -0,0 +1,60 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.ui;
+
+import com.edp2021c1.randomseatgenerator.util.StartupTracer;
+import javafx.scene.text.Font;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+
+/**
+ * Registers the bundled fonts, which used to be declared with {@code @font-face} in {@code base.css} and were then
+ * parsed on the FX thread the first time a stylesheet got applied.
+ */
+public final class Fonts {
+
+    private static final String[] FONTS = {"/assets/font/SmileySans.ttf", "/assets/font/FiraCode.ttf"};
+
+    public static CompletableFuture<Void> loadAsync() {
+        return CompletableFuture.allOf(Arrays.stream(FONTS)
+                .map(path -> StartupTracer.async("font " + path.substring(path.lastIndexOf('/') + 1), () -> load(path)))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    private static void load(String path) {
+        try (InputStream in = Fonts.class.getResourceAsStream(path)) {
+            if (in == null || Font.loadFont(in, 12) == null) {
+                LOGGER.warn("Failed to load font {}", path);
+            }
+        } catch (IOException e) {
+            LOGGER.warn("Failed to load font {}", path, e);
+        }
+    }
+
+    private Fonts() {
+    }
+
+}
@@ -22,6 +22,8 @@ package com.edp2021c1.randomseatgenerator.ui.node;
 
 import com.edp2021c1.randomseatgenerator.AppConfig;
 import com.edp2021c1.randomseatgenerator.AppSettings;
+import com.edp2021c1.randomseatgenerator.core.PlacementStrategy;
+import com.edp2021c1.randomseatgenerator.core.SeparationMetric;
 import com.edp2021c1.randomseatgenerator.ui.FXUtils;
 import com.edp2021c1.randomseatgenerator.util.i18n.Language;
 import javafx.beans.property.BooleanProperty;
@@ -52,10 +54,20 @@ public class ConfigPane extends VBox {
 
     private final StringProperty separateListProperty;
 
+    private final StringProperty pinnedSeatsProperty;
+
+    private final StringProperty togetherPairsProperty;
+
+    private final IntegerProperty separationDistanceProperty;
+
+    private final BooleanProperty diagonalSeparationProperty;
+
     private final BooleanProperty findLuckyProperty;
 
     private final BooleanProperty findLeadersProperty;
 
+    private final BooleanProperty leadersFirstProperty;
+
     private final BooleanProperty darkModeProperty;
 
     private final ObjectProperty<Language> languageProperty;
@@ -73,8 +85,13 @@ public class ConfigPane extends VBox {
             TextField nameListInput,
             TextField groupLeaderListInput,
             TextArea separateListInput,
+            TextArea pinnedSeatsInput,
+            TextArea togetherPairsInput,
+            IntegerField separationDistanceInput,
+            CheckBox diagonalSeparationCheck,
             CheckBox findLuckyCheck,
             CheckBox findLeadersCheck,
+            CheckBox leadersFirstCheck,
             CheckBox darkModeCheck,
             Label languageLabel,
             ChoiceBox<Language> languageChoiceBox,
@@ -89,18 +106,24 @@ public class ConfigPane extends VBox {
         nameListProperty = nameListInput.textProperty();
         leaderNameSetProperty = groupLeaderListInput.textProperty();
         separateListProperty = separateListInput.textProperty();
+        pinnedSeatsProperty = pinnedSeatsInput.textProperty();
+        togetherPairsProperty = togetherPairsInput.textProperty();
+        separationDistanceProperty = separationDistanceInput.valueProperty();
+        diagonalSeparationProperty = diagonalSeparationCheck.selectedProperty();
         findLuckyProperty = findLuckyCheck.selectedProperty();
         findLeadersProperty = findLeadersCheck.selectedProperty();
+        leadersFirstProperty = leadersFirstCheck.selectedProperty();
+        leadersFirstCheck.disableProperty().bind(findLeadersProperty.not());
         darkModeProperty = darkModeCheck.selectedProperty();
         languageProperty = languageChoiceBox.valueProperty();
         applyButtonDisabledProperty = applyBtnDisabledProperty;
 
         content = AppSettings.config.copy();
 
-        HBox box1 = new HBox(rowCountInput, columnCountInput, rbrInput, disabledLastRowPosInput);
+        HBox box1 = new HBox(rowCountInput, columnCountInput, rbrInput, disabledLastRowPosInput, separationDistanceInput);
         box1.setPrefHeight(60);
         box1.setAlignment(Pos.CENTER);
-        HBox box2 = new HBox(nameListInput, groupLeaderListInput, separateListInput, findLeadersCheck, findLuckyCheck);
+        HBox box2 = new HBox(nameListInput, groupLeaderListInput, separateListInput, pinnedSeatsInput, togetherPairsInput, diagonalSeparationCheck, findLeadersCheck, leadersFirstCheck, findLuckyCheck);
         box2.setPrefHeight(60);
         box2.setAlignment(Pos.CENTER);
         HBox box3 = new HBox(darkModeCheck, languageLabel, languageChoiceBox);
@@ -139,6 +162,29 @@ public class ConfigPane extends VBox {
             content.seatConfig.separatedPairs = newValue;
             refreshState();
         });
+        pinnedSeatsProperty.subscribe(newValue -> {
+            content.seatConfig.pinnedSeats = newValue;
+            refreshState();
+        });
+        togetherPairsProperty.subscribe(newValue -> {
+            content.seatConfig.togetherPairs = newValue;
+            refreshState();
+        });
+        separationDistanceProperty.subscribe(newValue -> {
+            // 0 与 1 相同, 只显示为 1, 未修改时保留原值
+            if (newValue.intValue() != Math.max(content.seatConfig.separationDistance, 1)) {
+                content.seatConfig.separationDistance = newValue.intValue();
+            }
+            refreshState();
+        });
+        diagonalSeparationProperty.subscribe(newValue -> {
+            // 未设置即为默认的曼哈顿距离, 未修改时保留原值
+            SeparationMetric metric = newValue ? SeparationMetric.CHEBYSHEV : SeparationMetric.MANHATTAN;
+            if (SeparationMetric.getById(content.seatConfig.separationMetric) != metric) {
+                content.seatConfig.separationMetric = metric.id;
+            }
+            refreshState();
+        });
         findLuckyProperty.subscribe(newValue -> {
             content.seatConfig.findLucky = newValue;
             refreshState();
@@ -147,6 +193,15 @@ public class ConfigPane extends VBox {
             content.seatConfig.findLeaders = newValue;
             refreshState();
         });
+        leadersFirstProperty.subscribe(newValue -> {
+            // 不设置即为默认的放置方式
+            if (newValue) {
+                content.seatConfig.placement = PlacementStrategy.LEADERS_FIRST.id;
+            } else if (PlacementStrategy.getById(content.seatConfig.placement) == PlacementStrategy.LEADERS_FIRST) {
+                content.seatConfig.placement = null;
+            }
+            refreshState();
+        });
         darkModeProperty.bindBidirectional(FXUtils.globalDarkModeProperty());
         darkModeProperty.subscribe(newValue -> {
             content.darkMode = newValue;
@@ -177,8 +232,13 @@ public class ConfigPane extends VBox {
         nameListProperty.set(config.seatConfig.nameList);
         leaderNameSetProperty.set(config.seatConfig.leaderNameSet);
         separateListProperty.set(config.seatConfig.separatedPairs);
+        pinnedSeatsProperty.set(config.seatConfig.pinnedSeats);
+        togetherPairsProperty.set(config.seatConfig.togetherPairs);
+        separationDistanceProperty.setValue(config.seatConfig.separationDistance <= 0 ? 1 : config.seatConfig.separationDistance);
+        diagonalSeparationProperty.set(SeparationMetric.getById(config.seatConfig.separationMetric) == SeparationMetric.CHEBYSHEV);
         findLuckyProperty.set(config.seatConfig.findLucky);
         findLeadersProperty.set(config.seatConfig.findLeaders);
+        leadersFirstProperty.set(PlacementStrategy.getById(config.seatConfig.placement) == PlacementStrategy.LEADERS_FIRST);
         darkModeProperty.set(config.darkMode);
         languageProperty.set(Language.getByCode(config.language));
     }
@@ -23,6 +23,8 @@ package com.edp2021c1.randomseatgenerator.ui.stage;
 import com.edp2021c1.randomseatgenerator.AppSettings;
 import com.edp2021c1.randomseatgenerator.core.SeatGenerator;
 import com.edp2021c1.randomseatgenerator.core.SeatTable;
+import com.edp2021c1.randomseatgenerator.core.SeatTableCache;
+import com.edp2021c1.randomseatgenerator.core.SeedScheme;
 import com.edp2021c1.randomseatgenerator.ui.FXUtils;
 import com.edp2021c1.randomseatgenerator.ui.node.SeatTableView;
 import com.edp2021c1.randomseatgenerator.util.*;
@@ -62,6 +64,8 @@ public final class PrimaryWindowManager {
 
     private static SeatGenerator seatGenerator;
 
+    private static final SeatTableCache seatTableCache = new SeatTableCache(SeatTableCache.DEFAULT_SIZE, null);
+
     private static FileChooser fileChooser;
 
     private static String previousSeed = null;
@@ -116,6 +120,9 @@ public final class PrimaryWindowManager {
         fileChooser.getExtensionFilters().addAll(
                 FXUtils.extensionFilter("xlsx"),
                 FXUtils.extensionFilter("xls"),
+                FXUtils.extensionFilter("png"),
+                FXUtils.extensionFilter("pdf"),
+                FXUtils.extensionFilter("json"),
                 FXUtils.extensionFilter("csv")
         );
 
@@ -134,7 +141,11 @@ public final class PrimaryWindowManager {
 
         exportBtn.setOnAction(event -> exportSeatTable());
 
-        seedInput.setOnAction(event -> generateSeatTable());
+        // 回车直接使用输入的种子, 不再触发默认按钮
+        seedInput.setOnAction(event -> {
+            event.consume();
+            showSeatTable(seed.get());
+        });
 
         randomSeedBtn.setOnAction(event -> generateRandomSeed());
 
@@ -171,14 +182,17 @@ public final class PrimaryWindowManager {
     }
 
     private static void generateSeatTable() {
-        try {
-            if (Objects.equals(previousSeed, seed.get())) {
-                generateRandomSeed();
-            }
+        if (Objects.equals(previousSeed, seed.get())) {
+            generateRandomSeed();
+        }
+        showSeatTable(seed.get());
+    }
 
-            String seed1 = seed.get();
-            seatTable.set(seatGenerator.generate(seed1));
-            LOGGER.info("{}{}", System.lineSeparator(), seatTable.get().toString());
+    private static void showSeatTable(String seed1) {
+        try {
+            seatTable.set(seatTableCache.generate(seatGenerator, seed1));
+            LOGGER.debug("{}{}", System.lineSeparator(), seatTable.get());
+            LOGGER.debug("Seat table cache: {}", seatTableCache.stats());
             previousSeed = seed1;
             generated = true;
         } catch (Exception e) {
@@ -187,7 +201,7 @@ public final class PrimaryWindowManager {
     }
 
     private static void generateRandomSeed() {
-        seed.set(Strings.randomString(30));
+        seed.set(SeedScheme.SECURE.create(null));
     }
 
     private static void exportSeatTable() {
@@ -219,7 +233,7 @@ public final class PrimaryWindowManager {
     }
 
     private static void generateDateSeed() {
-        seed.set(Strings.nowStr());
+        seed.set(SeedScheme.TIMESTAMP.create(null));
     }
 
     public static void init(Stage primaryStage) {
@@ -22,9 +22,12 @@ package com.edp2021c1.randomseatgenerator.ui.stage;
 
 import com.edp2021c1.randomseatgenerator.AppConfig;
 import com.edp2021c1.randomseatgenerator.AppSettings;
+import com.edp2021c1.randomseatgenerator.core.SeatConfig;
+import com.edp2021c1.randomseatgenerator.core.SuccessEstimator;
 import com.edp2021c1.randomseatgenerator.ui.FXUtils;
 import com.edp2021c1.randomseatgenerator.ui.node.ConfigPane;
 import com.edp2021c1.randomseatgenerator.ui.node.IntegerField;
+import com.edp2021c1.randomseatgenerator.util.DesktopUtils;
 import com.edp2021c1.randomseatgenerator.util.IOUtils;
 import com.edp2021c1.randomseatgenerator.util.Metadata;
 import com.edp2021c1.randomseatgenerator.util.exception.ExceptionHandler;
@@ -45,6 +48,8 @@ import lombok.Getter;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
 
@@ -81,10 +86,20 @@ public final class SettingsDialog extends Stage {
 
         TextArea separateListInput = FXUtils.createEmptyTextArea("seperatedPairsInput", 165, 56);
 
+        TextArea pinnedSeatsInput = FXUtils.createEmptyTextArea("pinnedSeatsInput", 165, 56);
+
+        TextArea togetherPairsInput = FXUtils.createEmptyTextArea("togetherPairsInput", 165, 56);
+
+        IntegerField separationDistanceInput = new IntegerField(true, "separationDistanceInput");
+
+        CheckBox diagonalSeparationCheck = FXUtils.createCheckBox("diagonalSeparation");
+
         CheckBox findLuckyCheck = FXUtils.createCheckBox("findLucky");
 
         CheckBox findLeadersCheck = FXUtils.createCheckBox("findLeaders");
 
+        CheckBox leadersFirstCheck = FXUtils.createCheckBox("leadersFirst");
+
         CheckBox darkModeCheck = FXUtils.createCheckBox("darkMode");
 
         Label               languageLabel     = new Label("    " + I18N.constant("language") + " ");
@@ -93,6 +108,8 @@ public final class SettingsDialog extends Stage {
 
         Button loadConfigBtn = FXUtils.createButton("load", 90, 26);
 
+        Button estimateBtn = FXUtils.createButton("estimate", 90, 26);
+
         Button applyBtn = FXUtils.createButton("apply", 80, 26);
         applyBtn.setDisable(true);
 
@@ -104,8 +121,13 @@ public final class SettingsDialog extends Stage {
                 nameListInput,
                 groupLeaderListInput,
                 separateListInput,
+                pinnedSeatsInput,
+                togetherPairsInput,
+                separationDistanceInput,
+                diagonalSeparationCheck,
                 findLuckyCheck,
                 findLeadersCheck,
+                leadersFirstCheck,
                 darkModeCheck,
                 languageLabel,
                 languageChoiceBox,
@@ -113,7 +135,7 @@ public final class SettingsDialog extends Stage {
         );
         configPane.setContent(AppSettings.config);
 
-        HBox loadConfigBtnBox = new HBox(loadConfigBtn);
+        HBox loadConfigBtnBox = new HBox(loadConfigBtn, estimateBtn);
         loadConfigBtnBox.setPrefHeight(45);
         loadConfigBtnBox.setAlignment(Pos.CENTER);
 
@@ -134,7 +156,7 @@ public final class SettingsDialog extends Stage {
         Hyperlink licenseLink = FXUtils.createHyperlink(Metadata.LICENSE_URI, "license", Metadata.LICENSE_NAME);
 
         TextArea licenseText = FXUtils.createEmptyTextArea(650, 288);
-        licenseText.setText(Metadata.LICENSE);
+        licenseText.setText(Metadata.getLicense());
         licenseText.setEditable(false);
         licenseText.getStyleClass().add("license-text-area");
 
@@ -171,7 +193,11 @@ public final class SettingsDialog extends Stage {
                 nameListInput,
                 groupLeaderListInput,
                 separateListInput,
+                pinnedSeatsInput,
+                togetherPairsInput,
+                separationDistanceInput,
                 loadConfigBtn,
+                estimateBtn,
                 applyBtn,
                 confirmBtn,
                 cancelBtn
@@ -195,6 +221,8 @@ public final class SettingsDialog extends Stage {
 
         loadConfigBtn.setOnAction(event -> loadConfig());
 
+        estimateBtn.setOnAction(event -> estimate(estimateBtn));
+
         applyBtn.setOnAction(event -> applyConfig());
 
         confirmBtn.setOnAction(event -> confirmConfig());
@@ -252,6 +280,19 @@ public final class SettingsDialog extends Stage {
         }
     }
 
+    private void estimate(Button estimateBtn) {
+        SeatConfig config = configPane.getContent().seatConfig.copy();
+        estimateBtn.setDisable(true);
+        CompletableFuture.supplyAsync(() -> SuccessEstimator.estimate(config)).whenComplete((estimate, e) -> DesktopUtils.runOnFXThread(() -> {
+            estimateBtn.setDisable(false);
+            if (e != null) {
+                ExceptionHandler.INSTANCE.handleException(e instanceof CompletionException ? e.getCause() : e);
+            } else {
+                MessageDialog.showMessage(this, estimate.notice());
+            }
+        }));
+    }
+
     private void confirmConfig() {
         applyConfig();
         close();
@@ -25,18 +25,18 @@ import org.jetbrains.annotations.NotNull;
 
 import java.util.Collections;
 import java.util.List;
-import java.util.Random;
+import java.util.random.RandomGenerator;
 import java.util.stream.IntStream;
 
 public final class CollectionUtils {
 
-    public static <T> List<T> randomlyPick(@NotNull List<T> list, int count, @NotNull Random random) {
+    public static <T> List<T> randomlyPick(@NotNull List<T> list, int count, @NotNull RandomGenerator random) {
         List<T> result = Lists.newLinkedList(list);
         Collections.shuffle(result, random);
         return Lists.newLinkedList(result.subList(0, Math.min(count, result.size())));
     }
 
-    public static <T> T randomlyPickOne(@NotNull List<T> list, @NotNull Random random) {
+    public static <T> T randomlyPickOne(@NotNull List<T> list, @NotNull RandomGenerator random) {
         return list.get(random.nextInt(list.size()));
     }
 
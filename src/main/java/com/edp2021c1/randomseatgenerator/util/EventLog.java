@@ -0,0 +1,56 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.util;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.util.Unbox;
+
+import java.nio.file.Path;
+
+/**
+ * Compact one-line records of generations and exports, written to {@code logs/events.log} by an asynchronous logger.
+ * <p>
+ * Uses the Log4j API directly rather than SLF4J, so that numbers are passed through {@link Unbox} instead of being
+ * boxed, keeping the calls garbage-free on the generating thread.
+ */
+public final class EventLog {
+
+    private static final Logger EVENTS = LogManager.getLogger("RandomSeatGenerator.Events");
+
+    public static void generated(String seed, String config, String algorithm, int attempts, long nanos) {
+        EVENTS.info("generate seed=\"{}\" config={} algorithm={} attempts={} nanos={}",
+                seed, config, algorithm, Unbox.box(attempts), Unbox.box(nanos));
+    }
+
+    public static void rearranged(String seed, String config, String rotation, int swaps, long nanos) {
+        EVENTS.info("rearrange seed=\"{}\" config={} rotation={} swaps={} nanos={}",
+                seed, config, rotation, Unbox.box(swaps), Unbox.box(nanos));
+    }
+
+    public static void exported(String seed, Path path, long nanos) {
+        EVENTS.info("export seed=\"{}\" path=\"{}\" nanos={}", seed, path, Unbox.box(nanos));
+    }
+
+    private EventLog() {
+    }
+
+}
@@ -26,6 +26,7 @@ import org.jetbrains.annotations.Contract;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -36,6 +37,10 @@ public final class IOUtils {
         return Resources.toString(Resources.getResource(path), StandardCharsets.UTF_8);
     }
 
+    public static InputStream openResource(String path) throws IOException, IllegalArgumentException {
+        return Resources.getResource(path).openStream();
+    }
+
     public static String readFile(Path path) throws IOException {
         return Files.readString(path, StandardCharsets.UTF_8);
     }
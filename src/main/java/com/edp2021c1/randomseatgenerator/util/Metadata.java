@@ -21,12 +21,14 @@
 package com.edp2021c1.randomseatgenerator.util;
 
 import com.edp2021c1.randomseatgenerator.RandomSeatGenerator;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
 import com.google.common.collect.Maps;
 import com.google.gson.reflect.TypeToken;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.net.URI;
-import java.net.URISyntaxException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.Map;
@@ -37,8 +39,6 @@ public final class Metadata {
 
     public static final Map<String, String> VERSION_META = Maps.newHashMapWithExpectedSize(1);
 
-    public static final String LICENSE;
-
     public static final String ICON_URL = "assets/img/icon.png";
 
     public static final URI GIT_REPOSITORY_URI;
@@ -63,9 +63,16 @@ public final class Metadata {
 
     public static final String TITLE;
 
+    private static final Supplier<String> license = Suppliers.memoize(() -> {
+        try {
+            return IOUtils.readResource("assets/meta/license");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    });
+
     static {
         try {
-            LICENSE = IOUtils.readResource("assets/meta/license");
             VERSION_META.putAll(RandomSeatGenerator.GSON.fromJson(IOUtils.readResource("assets/meta/version.json"), new TypeToken<Map<String, String>>() {
             }));
         } catch (IOException e) {
@@ -76,13 +83,16 @@ public final class Metadata {
         VERSION = (VERSION_ID == null) ? "dev" : ("v" + VERSION_ID);
         TITLE = NAME + " - " + VERSION;
 
-        try {
-            GIT_REPOSITORY_URI = new URI("https://github.com/edp2021c1/RandomSeatGenerator-JE");
-            LICENSE_URI = new URI("https://www.gnu.org/licenses/gpl-3.0.txt");
-            VERSION_PAGE_URI = new URI("https://github.com/edp2021c1/RandomSeatGenerator-JE/releases/tag/" + (VERSION_ID == null ? "" : VERSION));
-        } catch (URISyntaxException e) {
-            throw new RuntimeException(e);
-        }
+        GIT_REPOSITORY_URI = URI.create("https://github.com/edp2021c1/RandomSeatGenerator-JE");
+        LICENSE_URI = URI.create("https://www.gnu.org/licenses/gpl-3.0.txt");
+        VERSION_PAGE_URI = URI.create("https://github.com/edp2021c1/RandomSeatGenerator-JE/releases/tag/" + (VERSION_ID == null ? "" : VERSION));
+    }
+
+    /**
+     * The license text, only read when the about tab asks for it.
+     */
+    public static String getLicense() {
+        return license.get();
     }
 
 }
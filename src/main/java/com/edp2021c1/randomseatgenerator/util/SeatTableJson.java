@@ -0,0 +1,193 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.util;
+
+import com.edp2021c1.randomseatgenerator.core.SeatTable;
+import com.edp2021c1.randomseatgenerator.util.exception.TranslatableException;
+import com.google.gson.Strictness;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads and writes seat tables as JSON with Gson's streaming API, one table as an object or many as JSON lines.
+ * <p>
+ * Empty seats are written as {@code null}, and leaders as the row of the leader of each column, or -1 for a column without one.
+ */
+public final class SeatTableJson {
+
+    private static final String EMPTY = "-";
+
+    public static void write(JsonWriter out, SeatTable table) throws IOException {
+        out.beginObject();
+        out.name("seed").value(table.getSeed());
+        out.name("algorithm").value(table.getAlgorithm());
+        out.name("configFingerprint").value(table.getConfigFingerprint());
+        out.name("fingerprint").value("%016x".formatted(table.fingerprint()));
+        out.name("rows").value(table.getRowCount());
+        out.name("columns").value(table.getColumnCount());
+        out.name("grid").beginArray();
+        for (int i = 0; i < table.getRowCount(); i++) {
+            out.beginArray();
+            for (int j = 0; j < table.getColumnCount(); j++) {
+                String s = table.get(i, j);
+                out.value(EMPTY.equals(s) ? null : s);
+            }
+            out.endArray();
+        }
+        out.endArray();
+        if (table.hasLeaders()) {
+            out.name("leaders").beginArray();
+            for (int leader : table.getLeaders()) {
+                out.value(leader);
+            }
+            out.endArray();
+        }
+        if (table.hasLuckyPerson()) {
+            out.name("luckyPerson").value(table.getLuckyPerson());
+        }
+        out.endObject();
+    }
+
+    public static SeatTable read(JsonReader in) throws IOException {
+        String        seed    = null, algorithm = null, configFingerprint = null, luckyPerson = null;
+        int           rows    = 0, columns = 0;
+        List<String>  grid    = new ArrayList<>();
+        List<Integer> leaders = new ArrayList<>();
+        try {
+            in.beginObject();
+            while (in.hasNext()) {
+                switch (in.nextName()) {
+                    case "seed" -> seed = nextNullableString(in);
+                    case "algorithm" -> algorithm = nextNullableString(in);
+                    case "configFingerprint" -> configFingerprint = nextNullableString(in);
+                    case "luckyPerson" -> luckyPerson = nextNullableString(in);
+                    case "rows" -> rows = in.nextInt();
+                    case "columns" -> columns = in.nextInt();
+                    case "grid" -> {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            in.beginArray();
+                            while (in.hasNext()) {
+                                String s = nextNullableString(in);
+                                grid.add(s == null ? EMPTY : s);
+                            }
+                            in.endArray();
+                        }
+                        in.endArray();
+                    }
+                    case "leaders" -> {
+                        in.beginArray();
+                        while (in.hasNext()) {
+                            leaders.add(in.nextInt());
+                        }
+                        in.endArray();
+                    }
+                    default -> in.skipValue();
+                }
+            }
+            in.endObject();
+        } catch (IllegalStateException | NumberFormatException e) {
+            throw new IOException("Malformed seat table at " + in.getPath(), e);
+        }
+
+        if (rows <= 0 || columns <= 0 || grid.size() != (long) rows * columns || (!leaders.isEmpty() && leaders.size() != columns)) {
+            throw new IOException("Malformed seat table at " + in.getPath() + ", grid does not match %d x %d".formatted(rows, columns));
+        }
+        // -1 表示该列没有组长
+        for (int i = 0; i < leaders.size(); i++) {
+            if (leaders.get(i) < -1 || leaders.get(i) >= rows) {
+                throw TranslatableException.seat("invalid_leader_row", leaders.get(i), i + 1, rows);
+            }
+        }
+        SeatTable table = new SeatTable(rows, columns, !leaders.isEmpty(), seed, algorithm);
+        grid.toArray(table.getData());
+        for (int i = 0; i < leaders.size(); i++) {
+            table.getLeaders()[i] = leaders.get(i);
+        }
+        table.setLuckyPerson(luckyPerson);
+        table.setConfigFingerprint(configFingerprint);
+        return table;
+    }
+
+    private static String nextNullableString(JsonReader in) throws IOException {
+        if (in.peek() == JsonToken.NULL) {
+            in.nextNull();
+            return null;
+        }
+        return in.nextString();
+    }
+
+    /**
+     * Writes a table on a single line followed by a line break, without closing {@code out}.
+     */
+    public static void writeLine(Writer out, SeatTable table) throws IOException {
+        JsonWriter writer = new JsonWriter(out);
+        write(writer, table);
+        writer.flush();
+        out.write('\n');
+    }
+
+    /**
+     * Reads tables one after another until the end of the input, so the input may be as long as it likes.
+     */
+    public static void readLines(Reader in, Consumer<SeatTable> action) throws IOException {
+        JsonReader reader = new JsonReader(in);
+        reader.setStrictness(Strictness.LENIENT);
+        while (reader.peek() != JsonToken.END_DOCUMENT) {
+            action.accept(read(reader));
+        }
+    }
+
+    public static void exportToJson(SeatTable table, Path path) throws IOException {
+        try (JsonWriter out = new JsonWriter(Files.newBufferedWriter(path, StandardCharsets.UTF_8))) {
+            out.setIndent("  ");
+            write(out, table);
+        }
+    }
+
+    public static void exportToJsonLines(SeatTable table, Path path) throws IOException {
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            writeLine(out, table);
+        }
+    }
+
+    /**
+     * Reads the first table of a JSON or JSON lines file.
+     */
+    public static SeatTable importFromJson(Path path) throws IOException {
+        try (JsonReader in = new JsonReader(Files.newBufferedReader(path, StandardCharsets.UTF_8))) {
+            return read(in);
+        }
+    }
+
+    private SeatTableJson() {
+    }
+
+}
@@ -0,0 +1,348 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.util;
+
+import com.edp2021c1.randomseatgenerator.core.SeatTable;
+import com.edp2021c1.randomseatgenerator.util.i18n.I18N;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.GlyphVector;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Function;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+
+/**
+ * Draws seat tables for printing with Java2D, without touching the JavaFX scene, so it also works in console mode.
+ */
+public final class SeatTableRenderer {
+
+    private static final String FONT_PATH = "/assets/font/SmileySans.ttf";
+
+    private static final int CELL_WIDTH = 180, CELL_HEIGHT = 80, MARGIN = 48, HEADER_HEIGHT = 48, FOOTER_LINE_HEIGHT = 40, FOOTER_PADDING = 16;
+
+    private static final float NAME_SIZE = 36, SMALL_SIZE = 22;
+
+    private static final Stroke BORDER_STROKE = new BasicStroke(1.5f), LEADER_STROKE = new BasicStroke(3);
+
+    private static final Color BORDER = new Color(0x9E9E9E), EMPTY = new Color(0xF2F2F2), LEADER = new Color(0xFFF2A8), TEXT = new Color(0x212121), HINT = new Color(0x757575);
+
+    /**
+     * A4 landscape, in points.
+     */
+    private static final int PDF_WIDTH = 842, PDF_HEIGHT = 595, PDF_MARGIN = 24;
+
+    private static final float PNG_COMPRESSION_QUALITY = 0.85f;
+
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+
+    private static final Supplier<Font> BASE_FONT = Suppliers.memoize(() -> {
+        try (InputStream in = SeatTableRenderer.class.getResourceAsStream(FONT_PATH)) {
+            if (in != null) {
+                return Font.createFont(Font.TRUETYPE_FONT, in);
+            }
+        } catch (IOException | FontFormatException e) {
+            LOGGER.warn("Failed to load font {}", FONT_PATH, e);
+        }
+        return new Font(Font.SANS_SERIF, Font.PLAIN, 1);
+    });
+
+    private static final Map<Float, Font> FONTS = new ConcurrentHashMap<>();
+
+    private static final String TR_RENDER = I18N.ROOT_KEY + "render.";
+
+    /**
+     * Names repeat across the tables of a class, so their glyphs are laid out once.
+     * {@link GlyphVector} is mutable and not safe to share between threads, so each rendering thread keeps its own.
+     */
+    private static final ThreadLocal<Cache<GlyphKey, GlyphVector>> GLYPHS = ThreadLocal.withInitial(() -> CacheBuilder.newBuilder().maximumSize(2048).build());
+
+    private static final Map<Long, Layout> LAYOUTS = new ConcurrentHashMap<>();
+
+    private static Font font(float size) {
+        return FONTS.computeIfAbsent(size, s -> BASE_FONT.get().deriveFont(s));
+    }
+
+    private static GlyphVector glyphs(String text, float size) {
+        try {
+            return GLYPHS.get().get(new GlyphKey(text, size), () -> font(size).createGlyphVector(FRC, text));
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        }
+    }
+
+    private static Layout layoutOf(int rowCount, int columnCount) {
+        return LAYOUTS.computeIfAbsent((long) rowCount << 32 | columnCount, k -> new Layout(
+                MARGIN * 2 + columnCount * CELL_WIDTH,
+                MARGIN * 2 + HEADER_HEIGHT + rowCount * CELL_HEIGHT + FOOTER_LINE_HEIGHT * 2 + FOOTER_PADDING,
+                MARGIN + HEADER_HEIGHT,
+                MARGIN + HEADER_HEIGHT + rowCount * CELL_HEIGHT + FOOTER_PADDING
+        ));
+    }
+
+    /**
+     * Draws the text centred at the given point, shrinking it if it is wider than {@code maxWidth}.
+     */
+    private static void drawCentered(Graphics2D g, String text, float size, double x, double y, double maxWidth) {
+        GlyphVector gv     = glyphs(text, size);
+        Rectangle2D bounds = gv.getVisualBounds();
+        double      scale  = bounds.getWidth() > maxWidth ? maxWidth / bounds.getWidth() : 1;
+        Graphics2D  g2     = (Graphics2D) g.create();
+        g2.translate(x, y);
+        g2.scale(scale, scale);
+        g2.drawGlyphVector(gv, (float) -bounds.getCenterX(), (float) -bounds.getCenterY());
+        g2.dispose();
+    }
+
+    private static boolean isEmpty(String s) {
+        return s == null || s.equals("-");
+    }
+
+    public static BufferedImage render(SeatTable table) {
+        int    rows   = table.getRowCount(), columns = table.getColumnCount();
+        Layout layout = layoutOf(rows, columns);
+
+        BufferedImage image = new BufferedImage(layout.width, layout.height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D    g     = image.createGraphics();
+        try {
+            g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setRenderingHint(RenderingHints.KEY_FRACTIONALMETRICS, RenderingHints.VALUE_FRACTIONALMETRICS_ON);
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, layout.width, layout.height);
+
+            g.setColor(HINT);
+            for (int j = 0; j < columns; j++) {
+                drawCentered(g, String.valueOf(j + 1), SMALL_SIZE, MARGIN + (j + 0.5) * CELL_WIDTH, MARGIN + HEADER_HEIGHT / 2.0, CELL_WIDTH);
+            }
+
+            for (int i = 0; i < rows; i++) {
+                for (int j = 0; j < columns; j++) {
+                    int     x      = MARGIN + j * CELL_WIDTH, y = layout.gridTop + i * CELL_HEIGHT;
+                    String  name   = table.get(i, j);
+                    boolean leader = table.hasLeaders() && table.isLeader(i, j);
+                    if (leader || isEmpty(name)) {
+                        g.setColor(leader ? LEADER : EMPTY);
+                        g.fillRect(x, y, CELL_WIDTH, CELL_HEIGHT);
+                    }
+                    g.setColor(BORDER);
+                    g.setStroke(leader ? LEADER_STROKE : BORDER_STROKE);
+                    g.drawRect(x, y, CELL_WIDTH, CELL_HEIGHT);
+                    if (!isEmpty(name)) {
+                        g.setColor(TEXT);
+                        drawCentered(g, name, NAME_SIZE, x + CELL_WIDTH / 2.0, y + CELL_HEIGHT / 2.0, CELL_WIDTH - 16);
+                    }
+                }
+            }
+
+            g.setColor(HINT);
+            String footer = I18N.tr(TR_RENDER + "seed", table.getSeed()) + (table.getAlgorithm() == null ? "" : "    " + I18N.tr(TR_RENDER + "algorithm", table.getAlgorithm()));
+            drawCentered(g, footer, SMALL_SIZE, layout.width / 2.0, layout.footerTop + FOOTER_LINE_HEIGHT * 1.5, layout.width - MARGIN * 2);
+            if (table.hasLuckyPerson() && !isEmpty(table.getLuckyPerson())) {
+                g.setColor(TEXT);
+                drawCentered(g, I18N.tr(TR_RENDER + "luckyPerson", table.getLuckyPerson()), SMALL_SIZE, layout.width / 2.0, layout.footerTop + FOOTER_LINE_HEIGHT / 2.0, layout.width - MARGIN * 2);
+            }
+        } finally {
+            g.dispose();
+        }
+        return image;
+    }
+
+    public static void writePng(SeatTable table, Path path) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("png").next();
+        // 关闭 ImageOutputStream 不会关闭它包装的流
+        try (OutputStream file = Files.newOutputStream(path); ImageOutputStream out = ImageIO.createImageOutputStream(file)) {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            // 图片大部分是纯色, 最快的压缩级别文件也不会大多少
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(PNG_COMPRESSION_QUALITY);
+            writer.setOutput(out);
+            writer.write(null, new IIOImage(render(table), null, null), param);
+        } finally {
+            writer.dispose();
+        }
+    }
+
+    /**
+     * Writes a one-page A4 PDF showing the rendered table as an image, so no fonts need embedding.
+     */
+    public static void writePdf(SeatTable table, Path path) throws IOException {
+        BufferedImage image = render(table);
+        int           w     = image.getWidth(), h = image.getHeight();
+
+        int[]                 argb     = ((DataBufferInt) image.getRaster().getDataBuffer()).getData();
+        ByteArrayOutputStream pixels   = new ByteArrayOutputStream(w * h / 8);
+        Deflater              deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream out = new DeflaterOutputStream(pixels, deflater, 1 << 16)) {
+            byte[] rgb = new byte[w * 3];
+            for (int y = 0; y < h; y++) {
+                for (int x = 0, i = y * w; x < w; x++, i++) {
+                    rgb[x * 3] = (byte) (argb[i] >> 16);
+                    rgb[x * 3 + 1] = (byte) (argb[i] >> 8);
+                    rgb[x * 3 + 2] = (byte) argb[i];
+                }
+                out.write(rgb);
+            }
+        } finally {
+            deflater.end();
+        }
+
+        double scale = Math.min((PDF_WIDTH - PDF_MARGIN * 2.0) / w, (PDF_HEIGHT - PDF_MARGIN * 2.0) / h);
+        double dw    = w * scale, dh = h * scale;
+
+        String content = String.format(Locale.ROOT, "q %.2f 0 0 %.2f %.2f %.2f cm /Im0 Do Q", dw, dh, (PDF_WIDTH - dw) / 2, (PDF_HEIGHT - dh) / 2);
+
+        try (PdfWriter pdf = new PdfWriter(new BufferedOutputStream(Files.newOutputStream(path)))) {
+            pdf.object("<< /Type /Catalog /Pages 2 0 R >>");
+            pdf.object("<< /Type /Pages /Kids [3 0 R] /Count 1 >>");
+            pdf.object("<< /Type /Page /Parent 2 0 R /MediaBox [0 0 %d %d] /Resources << /XObject << /Im0 4 0 R >> >> /Contents 5 0 R >>".formatted(PDF_WIDTH, PDF_HEIGHT));
+            pdf.stream("<< /Type /XObject /Subtype /Image /Width %d /Height %d /ColorSpace /DeviceRGB /BitsPerComponent 8 /Filter /FlateDecode /Length %d >>"
+                    .formatted(w, h, pixels.size()), pixels.toByteArray());
+            pdf.stream("<< /Length %d >>".formatted(content.length()), content.getBytes(StandardCharsets.US_ASCII));
+        }
+    }
+
+    /**
+     * Renders many tables on a bounded pool, each to the path given by {@code pathOf}, as PNG or PDF by its extension.
+     */
+    public static void renderAll(List<SeatTable> tables, Function<SeatTable, Path> pathOf) throws IOException {
+        int threads = Math.min(Runtime.getRuntime().availableProcessors(), 8);
+        List<Future<?>> futures = new ArrayList<>(tables.size());
+        // 队列有界, 提交过快时由调用线程自己渲染, 同时存在的图片数量有限
+        try (ExecutorService pool = new ThreadPoolExecutor(
+                threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(threads * 2),
+                new ThreadPoolExecutor.CallerRunsPolicy()
+        )) {
+            for (SeatTable table : tables) {
+                futures.add(pool.submit(() -> {
+                    Path path = pathOf.apply(table);
+                    if (path.toString().endsWith(".pdf")) {
+                        writePdf(table, path);
+                    } else {
+                        writePng(table, path);
+                    }
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof IOException io) {
+                    throw io;
+                }
+                if (e.getCause() instanceof RuntimeException r) {
+                    throw r;
+                }
+                throw new IOException(e.getCause());
+            }
+        }
+    }
+
+    private record GlyphKey(String text, float size) {
+    }
+
+    private record Layout(int width, int height, int gridTop, int footerTop) {
+    }
+
+    /**
+     * Just enough of PDF to hold a few objects, numbered from 1 in the order they are written.
+     */
+    private static final class PdfWriter implements Closeable {
+
+        private final OutputStream out;
+
+        private final List<Long> offsets = new ArrayList<>();
+
+        private long position;
+
+        PdfWriter(OutputStream out) throws IOException {
+            this.out = out;
+            write("%PDF-1.4\n".getBytes(StandardCharsets.US_ASCII));
+        }
+
+        private void write(byte[] bytes) throws IOException {
+            out.write(bytes);
+            position += bytes.length;
+        }
+
+        private void write(String s) throws IOException {
+            write(s.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        void object(String dictionary) throws IOException {
+            offsets.add(position);
+            write("%d 0 obj\n%s\nendobj\n".formatted(offsets.size(), dictionary));
+        }
+
+        void stream(String dictionary, byte[] data) throws IOException {
+            offsets.add(position);
+            write("%d 0 obj\n%s\nstream\n".formatted(offsets.size(), dictionary));
+            write(data);
+            write("\nendstream\nendobj\n");
+        }
+
+        @Override
+        public void close() throws IOException {
+            long xref = position;
+            StringBuilder s = new StringBuilder("xref\n0 %d\n0000000000 65535 f \n".formatted(offsets.size() + 1));
+            for (long offset : offsets) {
+                s.append("%010d 00000 n \n".formatted(offset));
+            }
+            s.append("trailer\n<< /Size %d /Root 1 0 R >>\nstartxref\n%d\n%%%%EOF\n".formatted(offsets.size() + 1, xref));
+            write(s.toString());
+            out.close();
+        }
+
+    }
+
+    private SeatTableRenderer() {
+    }
+
+}
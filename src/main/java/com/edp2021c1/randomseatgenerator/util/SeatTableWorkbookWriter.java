@@ -0,0 +1,124 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.util;
+
+import com.edp2021c1.randomseatgenerator.core.SeatTable;
+import org.apache.poi.common.usermodel.HyperlinkType;
+import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Streams many seat tables into one xlsx workbook, stacked on sheets of up to {@value #SHEET_ROWS} rows after an index sheet.
+ * <p>
+ * The rows of each table are flushed to the temporary file of its sheet once it is written, so only the index sheet's
+ * last rows stay in memory. Every sheet keeps its temporary file open until {@link #close()}, which is why tables share
+ * sheets instead of getting one each. Nothing is written to {@code path} until {@link #close()}.
+ */
+public final class SeatTableWorkbookWriter implements Closeable {
+
+    /**
+     * Rows of a sheet after which the next table starts a new sheet.
+     */
+    private static final int SHEET_ROWS = 65536;
+
+    private static final String[] INDEX_HEADER = {"No.", "Sheet", "Seed", "Algorithm", "Lucky person", "Fingerprint"};
+
+    private final Path path;
+
+    private final SXSSFWorkbook workbook;
+
+    private final SeatUtils.Styles styles;
+
+    private final SXSSFSheet index;
+
+    private SXSSFSheet sheet;
+
+    private int sheetCount;
+
+    private int nextRow;
+
+    private int count;
+
+    public SeatTableWorkbookWriter(Path path) {
+        this.path = path;
+        this.workbook = new SXSSFWorkbook(SeatUtils.ROW_WINDOW);
+        this.styles = new SeatUtils.Styles(workbook);
+        this.index = workbook.createSheet("Index");
+
+        Row head = index.createRow(0);
+        for (int j = 0; j < INDEX_HEADER.length; j++) {
+            Cell cell = head.createCell(j);
+            cell.setCellValue(INDEX_HEADER[j]);
+            cell.setCellStyle(styles.header);
+        }
+    }
+
+    /**
+     * Adds a table below the previous one, safe to call from the threads producing the tables.
+     */
+    public synchronized void add(SeatTable table) throws IOException {
+        if (sheet == null || nextRow >= SHEET_ROWS) {
+            sheetCount++;
+            sheet = workbook.createSheet("Tables " + sheetCount);
+            nextRow = 0;
+        }
+        count++;
+        String name  = "Table " + count;
+        int    first = nextRow;
+        // 表之间空一行
+        nextRow = SeatUtils.writeSheet(sheet, first, table, styles) + 1;
+        sheet.flushRows();
+
+        Row row = index.createRow(count);
+        row.createCell(0).setCellValue(count);
+        Cell link = row.createCell(1);
+        link.setCellValue(name);
+        Hyperlink hyperlink = workbook.getCreationHelper().createHyperlink(HyperlinkType.DOCUMENT);
+        hyperlink.setAddress("'%s'!A%d".formatted(sheet.getSheetName(), first + 1));
+        link.setHyperlink(hyperlink);
+        link.setCellStyle(styles.link);
+        row.createCell(2).setCellValue(table.getSeed());
+        row.createCell(3).setCellValue(table.getAlgorithm());
+        row.createCell(4).setCellValue(table.getLuckyPerson());
+        row.createCell(5).setCellValue("%016x".formatted(table.fingerprint()));
+    }
+
+    public synchronized int size() {
+        return count;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try (OutputStream out = Files.newOutputStream(path)) {
+            workbook.write(out);
+        } finally {
+            workbook.close();
+        }
+    }
+
+}
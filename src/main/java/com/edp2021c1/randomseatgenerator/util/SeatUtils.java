@@ -26,31 +26,71 @@ import com.edp2021c1.randomseatgenerator.core.SeatTable;
 import org.apache.commons.io.file.PathUtils;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 public final class SeatUtils {
 
-    private static void exportToMsChart(SeatTable table, Path path, Workbook workbook) throws IOException {
-        Sheet sheet = workbook.createSheet("Seat Table");
-        int   i     = 0;
-        Row   head  = sheet.createRow(i);
+    /**
+     * Rows of an xlsx export kept in memory before they are flushed to a temporary file.
+     */
+    static final int ROW_WINDOW = 64;
+
+    /**
+     * Cell styles shared by every sheet of a workbook, as workbooks only allow a limited number of them.
+     */
+    static final class Styles {
+
+        final CellStyle leader;
+
+        final CellStyle header;
+
+        final CellStyle link;
+
+        Styles(Workbook workbook) {
+            leader = workbook.createCellStyle();
+            leader.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
+            leader.setFillPattern(FillPatternType.SOLID_FOREGROUND);
+
+            Font bold = workbook.createFont();
+            bold.setBold(true);
+            header = workbook.createCellStyle();
+            header.setFont(bold);
+
+            Font underlined = workbook.createFont();
+            underlined.setUnderline(Font.U_SINGLE);
+            underlined.setColor(IndexedColors.BLUE.getIndex());
+            link = workbook.createCellStyle();
+            link.setFont(underlined);
+        }
+
+    }
+
+    /**
+     * Writes {@code table} into {@code sheet} starting at row {@code first}.
+     *
+     * @return index of the row after the table
+     */
+    static int writeSheet(Sheet sheet, int first, SeatTable table, Styles styles) {
+        int i    = first;
+        Row head = sheet.createRow(i);
         for (int j = 0; j < table.columnCount; j++) {
-            head.createCell(j).setCellValue("Column " + (i + 1));
+            head.createCell(j).setCellValue("Column " + (j + 1));
         }
         i++;
-        CellStyle style = workbook.createCellStyle();
-        style.setFillForegroundColor(IndexedColors.YELLOW.getIndex());
-        style.setFillPattern(FillPatternType.SOLID_FOREGROUND);
-        for (; i <= table.rowCount; i++) {
+        for (int r = 0; r < table.rowCount; r++, i++) {
             Row row = sheet.createRow(i);
             for (int j = 0; j < table.columnCount; j++) {
                 Cell cell = row.createCell(j);
-                cell.setCellValue(table.get(i - 1, j));
-                if (table.isLeader(i - 1, j)) {
-                    cell.setCellStyle(style);
+                cell.setCellValue(table.get(r, j));
+                if (table.hasLeaders() && table.isLeader(r, j)) {
+                    cell.setCellStyle(styles.leader);
                 }
             }
         }
@@ -63,7 +103,21 @@ public final class SeatUtils {
         Row seedRow = sheet.createRow(i);
         seedRow.createCell(0).setCellValue("Seed");
         seedRow.createCell(1).setCellValue(table.getSeed());
-        workbook.write(PathUtils.newOutputStream(path, false));
+        i++;
+        if (table.getAlgorithm() != null) {
+            Row algorithmRow = sheet.createRow(i);
+            algorithmRow.createCell(0).setCellValue("Algorithm");
+            algorithmRow.createCell(1).setCellValue(table.getAlgorithm());
+            i++;
+        }
+        return i;
+    }
+
+    private static void exportToMsChart(SeatTable table, Path path, Workbook workbook) throws IOException {
+        try (workbook; OutputStream out = PathUtils.newOutputStream(path, false)) {
+            writeSheet(workbook.createSheet("Seat Table"), 0, table, new Styles(workbook));
+            workbook.write(out);
+        }
     }
 
     public static SeatTable generateEmpty(SeatConfig config) {
@@ -71,7 +125,8 @@ public final class SeatUtils {
     }
 
     public static void exportToXlsx(SeatTable table, Path path) throws IOException {
-        exportToMsChart(table, path, new XSSFWorkbook());
+        // 流式写入, 大座位表不必整个留在内存中
+        exportToMsChart(table, path, new SXSSFWorkbook(ROW_WINDOW));
     }
 
     public static void exportToXls(SeatTable table, Path path) throws IOException {
@@ -79,18 +134,38 @@ public final class SeatUtils {
     }
 
     public static void exportToCsv(SeatTable table, Path path) throws IOException {
-        IOUtils.writeFile(path, table.toString().replace("[", "").replace("]", ""));
+        try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+            table.appendTo(writer, false);
+        }
+    }
+
+    public static void exportToPng(SeatTable table, Path path) throws IOException {
+        SeatTableRenderer.writePng(table, path);
+    }
+
+    public static void exportToPdf(SeatTable table, Path path) throws IOException {
+        SeatTableRenderer.writePdf(table, path);
     }
 
     public static void export(SeatTable table, Path path) throws IOException {
-        String s = path.toString();
+        long   start = System.nanoTime();
+        String s     = path.toString();
         if (s.endsWith(".xlsx")) {
             exportToXlsx(table, path);
         } else if (s.endsWith(".xls")) {
             exportToXls(table, path);
+        } else if (s.endsWith(".png")) {
+            exportToPng(table, path);
+        } else if (s.endsWith(".pdf")) {
+            exportToPdf(table, path);
+        } else if (s.endsWith(".json")) {
+            SeatTableJson.exportToJson(table, path);
+        } else if (s.endsWith(".jsonl")) {
+            SeatTableJson.exportToJsonLines(table, path);
         } else {
             exportToCsv(table, path);
         }
+        EventLog.exported(table.getSeed(), path, System.nanoTime() - start);
     }
 
 }
@@ -0,0 +1,127 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.Comparator;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
+
+/**
+ * Records the phases of application startup, printed as a timeline when launched with {@code --profile-startup}.
+ * <p>
+ * Does nothing unless {@link #enable()} has been called.
+ */
+public final class StartupTracer {
+
+    private static final int BAR_WIDTH = 30;
+
+    private static final Queue<Phase> phases = new ConcurrentLinkedQueue<>();
+
+    private static volatile boolean enabled = false;
+
+    /**
+     * {@link System#nanoTime()} of the JVM start, estimated from its uptime.
+     */
+    private static long origin;
+
+    public static void enable() {
+        long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+        long now    = System.nanoTime();
+        origin = now - uptime * 1_000_000;
+        phases.add(new Phase("jvm", "-", 0, now - origin));
+        enabled = true;
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void trace(String name, Runnable runnable) {
+        trace(name, () -> {
+            runnable.run();
+            return null;
+        });
+    }
+
+    public static <T> T trace(String name, Supplier<T> supplier) {
+        if (!enabled) {
+            return supplier.get();
+        }
+        long start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            phases.add(new Phase(name, Thread.currentThread().getName(), start - origin, System.nanoTime() - origin));
+        }
+    }
+
+    public static CompletableFuture<Void> async(String name, Runnable runnable) {
+        return CompletableFuture.runAsync(() -> trace(name, runnable));
+    }
+
+    /**
+     * Records an instant, such as the first frame being shown.
+     */
+    public static void mark(String name) {
+        if (enabled) {
+            long now = System.nanoTime() - origin;
+            phases.add(new Phase(name, Thread.currentThread().getName(), now, now));
+        }
+    }
+
+    public static void printTimeline() {
+        if (!enabled) {
+            return;
+        }
+        long end = Math.max(1, phases.stream().mapToLong(Phase::end).max().orElse(1));
+        LOGGER.info("Startup timeline, {} ms since JVM start:", "%.1f".formatted(end / 1e6));
+        phases.stream().sorted(Comparator.comparingLong(Phase::start)).forEach(p -> LOGGER.info(
+                "|{}| {} ms +{} ms [{}] {}",
+                bar(p, end),
+                "%7.1f".formatted(p.start / 1e6),
+                "%-7.1f".formatted((p.end - p.start) / 1e6),
+                p.thread,
+                p.name
+        ));
+    }
+
+    private static String bar(Phase p, long end) {
+        int           from = (int) Math.min(BAR_WIDTH - 1, p.start * BAR_WIDTH / end);
+        int           to   = (int) Math.max(from + 1, p.end * BAR_WIDTH / end);
+        StringBuilder s    = new StringBuilder(BAR_WIDTH);
+        for (int i = 0; i < BAR_WIDTH; i++) {
+            s.append(i >= from && i < to ? '#' : ' ');
+        }
+        return s.toString();
+    }
+
+    private record Phase(String name, String thread, long start, long end) {
+    }
+
+    private StartupTracer() {
+    }
+
+}
@@ -22,24 +22,21 @@ package com.edp2021c1.randomseatgenerator.util;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
-import java.text.DateFormat;
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.util.List;
-import java.util.Random;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Predicate;
+import java.util.random.RandomGenerator;
 import java.util.regex.Pattern;
 
 public final class Strings {
 
-    private static final SimpleDateFormat defaultDateFormat = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss.SSS");
+    // 不可变, 可在多个线程间共享
+    private static final DateTimeFormatter defaultDateFormat = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS");
 
-    private static final SimpleDateFormat dateFormatShort = new SimpleDateFormat("yyyy-MM-dd");
+    private static final DateTimeFormatter dateFormatShort = DateTimeFormatter.ofPattern("yyyy-MM-dd");
 
-    private static final List<Character> CHARACTERS_AND_DIGITS = List.of(
-            'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h', 'i', 'j', 'k', 'l', 'm', 'n', 'o', 'p', 'q', 'r', 's', 't', 'u', 'v', 'w', 'x', 'y', 'z',
-            'A', 'B', 'C', 'D', 'E', 'F', 'G', 'H', 'I', 'J', 'K', 'L', 'M', 'N', 'O', 'P', 'Q', 'R', 'S', 'T', 'U', 'V', 'W', 'X', 'Y', 'Z',
-            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9');
+    private static final char[] CHARACTERS_AND_DIGITS = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
 
     public static final Predicate<String> integerPatternPredicate = Pattern.compile("-?\\d+").asMatchPredicate();
 
@@ -53,8 +50,8 @@ public final class Strings {
         return nowStr(dateFormatShort);
     }
 
-    public static String nowStr(final DateFormat format) {
-        return format.format(new Date());
+    public static String nowStr(final DateTimeFormatter format) {
+        return LocalDateTime.now().format(format);
     }
 
     public static String getStackTrace(final Throwable e) {
@@ -66,10 +63,16 @@ public final class Strings {
     }
 
     public static String randomString(final int len) {
+        return randomString(len, ThreadLocalRandom.current());
+    }
+
+    /**
+     * Letters and digits picked by {@code random}, the same sequence for the same state of {@code random}.
+     */
+    public static String randomString(final int len, final RandomGenerator random) {
         char[] chars = new char[len];
-        Random rd    = new Random();
         for (int i = 0; i < len; i++) {
-            chars[i] = CollectionUtils.randomlyPickOne(CHARACTERS_AND_DIGITS, rd);
+            chars[i] = CHARACTERS_AND_DIGITS[random.nextInt(CHARACTERS_AND_DIGITS.length)];
         }
         return new String(chars);
     }
@@ -33,6 +33,11 @@ import java.util.stream.Stream;
 
 public class Table<E> extends AbstractCollection<E> implements RandomAccess {
 
+    /**
+     * The most elements a table can hold, as many as the longest array most JVMs allow.
+     */
+    public static final int MAX_SIZE = Integer.MAX_VALUE - 8;
+
     @Getter
     protected final int rowCount;
 
@@ -49,6 +54,10 @@ public class Table<E> extends AbstractCollection<E> implements RandomAccess {
         if (rowCount < 0 || columnCount < 0) {
             throw new IllegalArgumentException();
         }
+        // 行列数之积可能超出 int 范围
+        if ((long) rowCount * columnCount > MAX_SIZE) {
+            throw new IllegalArgumentException("Table of %d x %d is too large".formatted(rowCount, columnCount));
+        }
         this.rowCount = rowCount;
         this.columnCount = columnCount;
         this.size = rowCount * columnCount;
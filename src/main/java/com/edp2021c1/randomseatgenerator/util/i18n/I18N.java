@@ -27,7 +27,11 @@ import com.google.common.collect.Maps;
 import com.google.gson.reflect.TypeToken;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import static com.edp2021c1.randomseatgenerator.RandomSeatGenerator.LOGGER;
 
@@ -36,48 +40,71 @@ public final class I18N {
     private static final TypeToken<Map<String, String>> MAP_TYPE = new TypeToken<>() {
     };
 
-    private static final Map<String, String> translations = Maps.newHashMap();
+    private static final Map<String, Map<String, String>> catalogues = new ConcurrentHashMap<>();
 
-    private static final Map<String, String> fallback = Maps.newHashMap();
+    private static final Map<String, MessageTemplate> templates = new ConcurrentHashMap<>();
 
     public static final String LANG_PATH = "assets/lang/%s.json";
 
+    /**
+     * Compact catalogues generated from the json files at build time, see {@code compileLangCatalogues} in the build
+     * script.
+     */
+    public static final String CATALOGUE_PATH = "assets/lang/%s.lang";
+
+    public static final String FALLBACK_CODE = "en_us";
+
     public static final String ROOT_KEY = "randomseatgenerator.";
 
     public static final String CONSTANT_KEY = ROOT_KEY + "constants.";
 
-    private static String code = "zh_cn";
+    private static volatile String code = "zh_cn";
 
     public static void init(@NotNull String code) {
         I18N.code = code.toLowerCase();
+        templates.clear();
         LOGGER.debug("Language: {}", I18N.code);
+    }
 
-        String json;
+    public static String tr(@NotNull String key, Object... args) {
+        return templates.computeIfAbsent(key, I18N::compile).format(args);
+    }
 
-        try {
-            json = IOUtils.readResource(LANG_PATH.formatted(I18N.code));
-        } catch (Exception e) {
-            ExceptionHandler.INSTANCE.handleException(e);
-            return;
-        }
-        translations.putAll(RandomSeatGenerator.GSON.fromJson(json, MAP_TYPE));
+    public static String constant(String name) {
+        return tr(CONSTANT_KEY + name);
+    }
 
-        try {
-            json = IOUtils.readResource(LANG_PATH.formatted("en_us"));
-        } catch (Exception e) {
-            ExceptionHandler.INSTANCE.handleException(e);
-            return;
+    private static MessageTemplate compile(String key) {
+        String template = catalogue(code).get(key);
+        if (template == null && !FALLBACK_CODE.equals(code)) {
+            template = catalogue(FALLBACK_CODE).get(key);
         }
-        fallback.putAll(RandomSeatGenerator.GSON.fromJson(json, MAP_TYPE));
-
+        return MessageTemplate.compile(template == null ? key : template);
     }
 
-    public static String tr(@NotNull String key, Object... args) {
-        return translations.getOrDefault(key, key).formatted(args);
+    private static Map<String, String> catalogue(String code) {
+        return catalogues.computeIfAbsent(code, I18N::load);
     }
 
-    public static String constant(String name) {
-        return tr(CONSTANT_KEY + name);
+    private static Map<String, String> load(String code) {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(IOUtils.openResource(CATALOGUE_PATH.formatted(code))))) {
+            int                 size  = in.readInt();
+            Map<String, String> table = Maps.newHashMapWithExpectedSize(size);
+            for (int i = 0; i < size; i++) {
+                table.put(in.readUTF(), in.readUTF());
+            }
+            LOGGER.debug("Loaded {} translations for {}", size, code);
+            return table;
+        } catch (IllegalArgumentException | IOException e) {
+            LOGGER.debug("No compiled catalogue for {}, reading json instead", code);
+        }
+
+        try {
+            return RandomSeatGenerator.GSON.fromJson(IOUtils.readResource(LANG_PATH.formatted(code)), MAP_TYPE);
+        } catch (Exception e) {
+            ExceptionHandler.INSTANCE.handleException(e);
+            return Map.of();
+        }
     }
 
 }
@@ -0,0 +1,110 @@
+/*
+ * This file is part of the RandomSeatGenerator project, licensed under the
+ * GNU General Public License v3.0
+ *
+ * Copyright (C) 2025  EDP2021C1 and contributors
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package com.edp2021c1.randomseatgenerator.util.i18n;
+
+import com.google.common.collect.Lists;
+
+import java.util.Formattable;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A translation parsed once into literal parts and arguments.
+ * <p>
+ * Plain {@code %s} and {@code %d} are substituted directly, anything fancier falls back to {@link String#format}.
+ */
+final class MessageTemplate {
+
+    private static final Pattern SPECIFIER = Pattern.compile("%(\\d+\\$)?([-#+ 0,(<]*)?(\\d+)?(\\.\\d+)?([tT])?([a-zA-Z%])");
+
+    private static final char STRING = 's', DECIMAL = 'd';
+
+    static MessageTemplate compile(String template) {
+        if (template.indexOf('%') < 0) {
+            return new MessageTemplate(template, new String[]{template}, new char[0], true);
+        }
+
+        Matcher       matcher     = SPECIFIER.matcher(template);
+        List<String>  literals    = Lists.newArrayList();
+        StringBuilder literal     = new StringBuilder();
+        StringBuilder conversions = new StringBuilder();
+        boolean       simple      = true;
+        int           last        = 0;
+        while (matcher.find()) {
+            literal.append(template, last, matcher.start());
+            last = matcher.end();
+            char    conversion = matcher.group(6).charAt(0);
+            boolean plain      = matcher.end() - matcher.start() == 2;
+            if (plain && conversion == '%') {
+                literal.append('%');
+            } else if (plain && conversion == 'n') {
+                literal.append(System.lineSeparator());
+            } else if (plain && (conversion == STRING || conversion == DECIMAL)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                conversions.append(conversion);
+            } else {
+                simple = false;
+                break;
+            }
+        }
+        literal.append(template, last, template.length());
+        literals.add(literal.toString());
+        return new MessageTemplate(template, literals.toArray(new String[0]), conversions.toString().toCharArray(), simple);
+    }
+
+    private final String template;
+
+    private final String[] literals;
+
+    private final char[] conversions;
+
+    private final boolean simple;
+
+    private MessageTemplate(String template, String[] literals, char[] conversions, boolean simple) {
+        this.template = template;
+        this.literals = literals;
+        this.conversions = conversions;
+        this.simple = simple;
+    }
+
+    String format(Object... args) {
+        if (!simple || args.length < conversions.length) {
+            return template.formatted(args);
+        }
+        if (conversions.length == 0) {
+            return literals[0];
+        }
+        StringBuilder s = new StringBuilder(template.length() + 16 * conversions.length);
+        for (int i = 0; i < conversions.length; i++) {
+            s.append(literals[i]);
+            Object arg = args[i];
+            if (arg instanceof Formattable || (conversions[i] == DECIMAL && !(arg instanceof Integer || arg instanceof Long))) {
+                s.append(("%" + conversions[i]).formatted(arg));
+            } else {
+                s.append(arg);
+            }
+        }
+        return s.append(literals[conversions.length]).toString();
+    }
+
+}